@@ -0,0 +1,200 @@
+package com.equitycalc;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+import com.equitycalc.model.Player;
+import com.equitycalc.range.HandRange;
+import com.equitycalc.simulation.BoardSampler;
+import com.equitycalc.simulation.ExactEnumerator;
+import com.equitycalc.simulation.HaltonBoardSampler;
+import com.equitycalc.simulation.MonteCarloSim;
+import com.equitycalc.simulation.RandomBoardSampler;
+import com.equitycalc.simulation.RangeSimulator;
+import com.equitycalc.simulation.SevenCardLookup;
+import com.equitycalc.simulation.SimulationResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongFunction;
+
+/**
+ * Command-line benchmarks for the equity engines.
+ *
+ * <p>{@code samplers} compares the error curves of the pseudo-random and the
+ * scrambled Halton board samplers against exact equities: for each sample size
+ * it prints the RMS error of the first player's equity over independent
+ * replications, and the fitted convergence order (0.5 for plain Monte Carlo).
+ *
+ * <p>{@code multiway} measures {@link MonteCarloSim#runSimulation} throughput
+ * from heads-up to ten-handed, in hands and player evaluations per second. Its
+ * progress output is discarded while it runs but still formatted, so the
+ * figures are those of a real call.
+ *
+ * <p>{@code ranges} measures single-threaded range-vs-range throughput with
+ * nine players on wide and on narrow, overlapping ranges.
+ */
+public class Benchmark {
+    private static final int[] SAMPLE_SIZES = {1_000, 4_000, 16_000, 64_000, 256_000};
+    private static final int REPLICATIONS = 24;
+
+    private static final int MULTIWAY_HANDS = 4_000_000;
+    private static final String[] MULTIWAY_PLAYERS = {
+        "AhKh", "QsQc", "JdTd", "7c6c", "As2d", "9h9d", "KcQd", "8s8h", "5d4d", "JhTc"
+    };
+
+    private static final int RANGE_ITERATIONS = 2_000_000;
+    private static final String[][] RANGE_SCENARIOS = {
+        {"22+,A2s+,K9s+,QTs+,JTs,ATo+,KJo+", "wide"},
+        {"TT+", "narrow"},
+        {"99+,AQ+", "narrow"}
+    };
+
+    private static final String[][] SCENARIOS = {
+        {"AcAd", "KhKs"},
+        {"AhKh", "QsQc"},
+        {"AhKh", "QsQc", "JdTd"},
+        {"AhKh", "QsQc", "JdTd", "7c6c", "As2d", "9h9d"}
+    };
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        String mode = args.length > 0 ? args[0] : "samplers";
+        if (mode.equals("samplers")) {
+            benchmarkSamplers();
+        } else if (mode.equals("multiway")) {
+            benchmarkMultiway();
+        } else if (mode.equals("ranges")) {
+            benchmarkRanges();
+        } else {
+            System.err.println("Unknown benchmark: " + mode);
+            System.exit(1);
+        }
+    }
+
+    private static void benchmarkSamplers() {
+        for (String[] scenario : SCENARIOS) {
+            long[] holeCards = parseHands(scenario);
+            double exact = new ExactEnumerator().enumerate(holeCards, 0L, 0L).getEquity(0);
+            System.out.printf("%n%s  exact equity %.5f%n", String.join(" vs ", scenario), exact);
+            System.out.printf("%10s %14s %14s%n", "samples", "random RMSE", "Halton RMSE");
+
+            double[] randomErrors = new double[SAMPLE_SIZES.length];
+            double[] haltonErrors = new double[SAMPLE_SIZES.length];
+            for (int s = 0; s < SAMPLE_SIZES.length; s++) {
+                randomErrors[s] = rmsError(holeCards, SAMPLE_SIZES[s], exact,
+                    seed -> new RandomBoardSampler(new SplittableRandom(seed)));
+                haltonErrors[s] = rmsError(holeCards, SAMPLE_SIZES[s], exact,
+                    seed -> new HaltonBoardSampler(new SplittableRandom(seed)));
+                System.out.printf("%10d %14.6f %14.6f%n", SAMPLE_SIZES[s], randomErrors[s], haltonErrors[s]);
+            }
+            System.out.printf("%10s %14.2f %14.2f%n", "order", convergenceOrder(randomErrors),
+                convergenceOrder(haltonErrors));
+        }
+    }
+
+    private static void benchmarkMultiway() throws InterruptedException, ExecutionException {
+        PrintStream out = System.out;
+        out.printf("%8s %16s %20s %12s%n", "players", "hands/s", "evaluations/s", "vs heads-up");
+        List<List<Player>> scenarios = new ArrayList<>();
+        for (int players = 2; players <= MULTIWAY_PLAYERS.length; players++) {
+            List<Player> scenario = new ArrayList<>();
+            for (int i = 0; i < players; i++) {
+                String hand = MULTIWAY_PLAYERS[i];
+                scenario.add(new Player(List.of(new Card(hand.substring(0, 2)), new Card(hand.substring(2, 4)))));
+            }
+            scenarios.add(scenario);
+        }
+
+        MonteCarloSim sim = new MonteCarloSim(MULTIWAY_HANDS);
+        double[] rates = new double[scenarios.size()];
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            // Warm every player count up before timing any of them
+            MonteCarloSim warmup = new MonteCarloSim(MULTIWAY_HANDS / 4);
+            for (List<Player> scenario : scenarios) {
+                warmup.runSimulation(scenario);
+            }
+            for (int s = 0; s < rates.length; s++) {
+                long start = System.nanoTime();
+                sim.runSimulation(scenarios.get(s));
+                rates[s] = MULTIWAY_HANDS / ((System.nanoTime() - start) / 1e9);
+            }
+        } finally {
+            System.setOut(out);
+        }
+        for (int s = 0; s < rates.length; s++) {
+            int players = scenarios.get(s).size();
+            out.printf("%8d %16.0f %20.0f %11.2fx%n", players, rates[s], rates[s] * players, rates[0] / rates[s]);
+        }
+    }
+
+    private static void benchmarkRanges() {
+        int players = 9;
+        System.out.printf("%-36s %8s %16s %12s%n", "range (x9)", "", "iterations/s", "acceptance");
+        for (String[] scenario : RANGE_SCENARIOS) {
+            List<HandRange> ranges = Collections.nCopies(players, HandRange.parse(scenario[0]));
+            RangeSimulator simulator = new RangeSimulator(ranges, 0L, 0L);
+            SplittableRandom random = new SplittableRandom(1);
+            simulator.run(RANGE_ITERATIONS / 4, random);
+
+            long start = System.nanoTime();
+            simulator.run(RANGE_ITERATIONS, random);
+            double rate = RANGE_ITERATIONS / ((System.nanoTime() - start) / 1e9);
+            System.out.printf("%-36s %8s %16.0f %12.3f%n", scenario[0], scenario[1], rate,
+                simulator.getAcceptanceRate());
+        }
+    }
+
+    private static double rmsError(long[] holeCards, int samples, double exact,
+                                   LongFunction<BoardSampler> samplers) {
+        long live = Deck.FULL_DECK_MASK;
+        for (long hand : holeCards) {
+            live &= ~hand;
+        }
+        int[] strengths = new int[holeCards.length];
+        double squaredError = 0;
+        for (int r = 0; r < REPLICATIONS; r++) {
+            BoardSampler sampler = samplers.apply(r * 7919L + samples);
+            SimulationResult result = new SimulationResult(holeCards.length);
+            for (int n = 0; n < samples; n++) {
+                long board = sampler.nextBoard(live, 5);
+                for (int i = 0; i < holeCards.length; i++) {
+                    strengths[i] = SevenCardLookup.evaluate(holeCards[i] | board);
+                }
+                result.recordShowdown(strengths, holeCards.length, 1);
+            }
+            double error = result.getEquity(0) - exact;
+            squaredError += error * error;
+        }
+        return Math.sqrt(squaredError / REPLICATIONS);
+    }
+
+    // Least-squares slope of -log(error) against log(samples)
+    private static double convergenceOrder(double[] errors) {
+        int n = SAMPLE_SIZES.length;
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        for (int i = 0; i < n; i++) {
+            double x = Math.log(SAMPLE_SIZES[i]);
+            double y = -Math.log(errors[i]);
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+        }
+        return (n * sxy - sx * sy) / (n * sxx - sx * sx);
+    }
+
+    private static long[] parseHands(String[] hands) {
+        long[] masks = new long[hands.length];
+        for (int i = 0; i < hands.length; i++) {
+            masks[i] = Card.addCardToBitMask(
+                Card.addCardToBitMask(0L, new Card(hands[i].substring(0, 2))),
+                new Card(hands[i].substring(2, 4)));
+        }
+        return masks;
+    }
+}
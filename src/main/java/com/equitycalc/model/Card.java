@@ -108,6 +108,17 @@ public class Card implements Comparable<Card> {
     public static long addCardToBitMask(long bitMask, Card card) {
         return bitMask | cardToBitMask(card);
     }
+
+    // Mask of every card in the list; a null list is empty
+    public static long toBitMask(List<Card> cards) {
+        long bitMask = 0L;
+        if (cards != null) {
+            for (Card card : cards) {
+                bitMask = addCardToBitMask(bitMask, card);
+            }
+        }
+        return bitMask;
+    }
     
     public static long removeCardFromBitMask(long bitMask, Card card) {
         return bitMask & ~cardToBitMask(card);
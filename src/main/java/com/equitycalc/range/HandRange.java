@@ -0,0 +1,316 @@
+package com.equitycalc.range;
+
+import com.equitycalc.model.Card;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable, optionally weighted set of the 1326 two-card starting hands.
+ *
+ * <p>Combo {@code b * (b - 1) / 2 + a} is the hand of cards {@code a < b} in
+ * {@link Card#toBits()} numbering, so combos are ordered by their higher card.
+ * Membership is a 1326-bit set and weights, in {@code (0, 1]}, are stored only
+ * when some combo has a weight other than 1.
+ *
+ * <p>{@link #parse(String)} compiles the usual range notation, comma-separated:
+ * <ul>
+ *   <li>{@code QQ}, {@code AKs}, {@code AKo}, {@code AK}: a pair, suited, offsuit or any combos of two ranks</li>
+ *   <li>{@code QQ+}, {@code ATs+}: pairs up to aces, or the kicker up to one below the top card</li>
+ *   <li>{@code 22-55}, {@code K9o-K6o}: pairs, or kickers under the same top card, between two bounds</li>
+ *   <li>{@code AhKh}: a single combo</li>
+ *   <li>{@code AKs:0.5}: any of the above with a weight; a later token overrides an earlier one</li>
+ * </ul>
+ * The most recently used compiled ranges are cached by their normalised text,
+ * so repeated queries never parse or expand a range twice while the cache,
+ * about 10 KB per range, stays bounded however many ranges an editor produces.
+ */
+public final class HandRange {
+    public static final int COMBOS = 1326;
+    /** Starting-hand classes: 13 pairs, 78 suited and 78 offsuit rank pairs. */
+    public static final int HAND_CLASSES = 169;
+    private static final int RANKS = 13;
+    private static final int WORDS = (COMBOS + 63) / 64;
+    private static final int DECK_SIZE = 52;
+    private static final int CACHE_SIZE = 256;
+
+    // Card masks of every combo, in combo order
+    private static final long[] COMBO_CARDS = new long[COMBOS];
+    private static final short[] COMBO_CLASSES = new short[COMBOS];
+    // Access-ordered, so the least recently used range is evicted first
+    private static final Map<String, HandRange> CACHE = new LinkedHashMap<>(CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HandRange> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    static {
+        for (int high = 1; high < DECK_SIZE; high++) {
+            for (int low = 0; low < high; low++) {
+                COMBO_CARDS[comboIndex(low, high)] = 1L << low | 1L << high;
+                COMBO_CLASSES[comboIndex(low, high)] = (short) classOf(low, high);
+            }
+        }
+    }
+
+    private final long[] bits;
+    // Null when every combo in the range has weight 1
+    private final float[] weights;
+    private final int[] combos;
+    private final String text;
+
+    HandRange(long[] bits, float[] weights, String text) {
+        this.bits = bits;
+        this.weights = weights;
+        this.text = text;
+        this.combos = new int[cardinality(bits)];
+        int n = 0;
+        for (int combo = nextCombo(bits, 0); combo >= 0; combo = nextCombo(bits, combo + 1)) {
+            combos[n++] = combo;
+        }
+    }
+
+    /**
+     * Compiles range notation, served from the cache when the same normalised
+     * text was parsed before.
+     *
+     * @throws IllegalArgumentException if the text is not valid range notation
+     */
+    public static HandRange parse(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Range text must not be null");
+        }
+        String normalised = normalise(text);
+        synchronized (CACHE) {
+            HandRange cached = CACHE.get(normalised);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Parsed outside the lock; a concurrent parse of the same text just replaces an equal range
+        HandRange range = RangeParser.parse(normalised);
+        synchronized (CACHE) {
+            CACHE.put(normalised, range);
+        }
+        return range;
+    }
+
+    /**
+     * Range of the given hands, each a {@link Card#toBits()} mask of two cards, at weight 1.
+     */
+    public static HandRange of(long... hands) {
+        long[] bits = new long[WORDS];
+        StringBuilder text = new StringBuilder();
+        for (long hand : hands) {
+            int combo = comboIndex(hand);
+            bits[combo >>> 6] |= 1L << combo;
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(comboText(combo));
+        }
+        return new HandRange(bits, null, text.toString());
+    }
+
+    // Whitespace is dropped; rank letters are upper case, suits and the s/o suffix
+    // lower case, and weights in their shortest form, so 0.50 and .5 read 0.5
+    static String normalise(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (c == ':') {
+                int end = i + 1;
+                while (end < text.length() && text.charAt(end) != ',') {
+                    end++;
+                }
+                out.append(':').append(normaliseWeight(text.substring(i + 1, end).replaceAll("\\s", "")));
+                i = end - 1;
+                continue;
+            }
+            char lower = Character.toLowerCase(c);
+            out.append("tjqka".indexOf(lower) >= 0 ? Character.toUpperCase(c) : lower);
+        }
+        return out.toString();
+    }
+
+    // Invalid weights are kept as written for the parser to reject
+    private static String normaliseWeight(String weight) {
+        String shortest;
+        try {
+            shortest = Float.toString(Float.parseFloat(weight));
+        } catch (NumberFormatException e) {
+            return weight;
+        }
+        return shortest.endsWith(".0") ? shortest.substring(0, shortest.length() - 2) : shortest;
+    }
+
+    /** Combo index of two distinct cards in {@link Card#toBits()} numbering. */
+    public static int comboIndex(int card1, int card2) {
+        if (card1 == card2 || card1 < 0 || card2 < 0 || card1 >= DECK_SIZE || card2 >= DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid combo cards: " + card1 + ", " + card2);
+        }
+        int low = Math.min(card1, card2);
+        int high = Math.max(card1, card2);
+        return high * (high - 1) / 2 + low;
+    }
+
+    /** Combo index of a {@link Card#toBits()} mask holding exactly two cards. */
+    public static int comboIndex(long hand) {
+        if (Long.bitCount(hand) != 2 || hand >>> DECK_SIZE != 0) {
+            throw new IllegalArgumentException("Hand must hold exactly two cards");
+        }
+        return comboIndex(Long.numberOfTrailingZeros(hand), 63 - Long.numberOfLeadingZeros(hand));
+    }
+
+    /** {@link Card#toBits()} mask of a combo's two cards. */
+    public static long comboCards(int combo) {
+        return COMBO_CARDS[combo];
+    }
+
+    /**
+     * Hand class of a combo as an index into the 13x13 grid with aces first:
+     * {@code row * 13 + column}, pairs on the diagonal, suited hands above it
+     * (row of the higher rank) and offsuit hands below.
+     */
+    public static int handClass(int combo) {
+        return COMBO_CLASSES[combo];
+    }
+
+    /** Name of a hand class, such as {@code AA}, {@code AKs} or {@code 72o}. */
+    public static String handClassName(int handClass) {
+        if (handClass < 0 || handClass >= HAND_CLASSES) {
+            throw new IllegalArgumentException("Invalid hand class: " + handClass);
+        }
+        int row = handClass / RANKS;
+        int column = handClass % RANKS;
+        Card.Rank[] ranks = Card.Rank.values();
+        char first = ranks[RANKS - 1 - Math.min(row, column)].getSymbol();
+        char second = ranks[RANKS - 1 - Math.max(row, column)].getSymbol();
+        String name = String.valueOf(first) + second;
+        return row == column ? name : name + (row < column ? 's' : 'o');
+    }
+
+    private static int classOf(int low, int high) {
+        int highRow = RANKS - 1 - (high >>> Card.SUIT_BITS);
+        int lowRow = RANKS - 1 - (low >>> Card.SUIT_BITS);
+        boolean suited = ((low ^ high) & ((1 << Card.SUIT_BITS) - 1)) == 0;
+        return suited ? highRow * RANKS + lowRow : lowRow * RANKS + highRow;
+    }
+
+    static String comboText(int combo) {
+        long cards = COMBO_CARDS[combo];
+        return Card.fromBits(63 - Long.numberOfLeadingZeros(cards)).toString()
+            + Card.fromBits(Long.numberOfTrailingZeros(cards));
+    }
+
+    public boolean contains(int combo) {
+        return (bits[combo >>> 6] & 1L << combo) != 0;
+    }
+
+    /** Weight of a combo: 0 outside the range, otherwise in {@code (0, 1]}. */
+    public float getWeight(int combo) {
+        if (!contains(combo)) {
+            return 0f;
+        }
+        return weights == null ? 1f : weights[combo];
+    }
+
+    /** True when some combo has a weight other than 1. */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /** Number of combos in the range, whatever their weights. */
+    public int size() {
+        return combos.length;
+    }
+
+    public boolean isEmpty() {
+        return combos.length == 0;
+    }
+
+    /** Sum of the combo weights. */
+    public double getTotalWeight() {
+        if (weights == null) {
+            return combos.length;
+        }
+        double total = 0;
+        for (int combo : combos) {
+            total += weights[combo];
+        }
+        return total;
+    }
+
+    /** Combo indices in the range in ascending order; the array is shared and must not be modified. */
+    public int[] combos() {
+        return combos;
+    }
+
+    /** First combo at or after {@code from} in the range, or -1 if none. */
+    public int nextCombo(int from) {
+        return nextCombo(bits, from);
+    }
+
+    /** Normalised text this range was compiled from. */
+    public String getText() {
+        return text;
+    }
+
+    static int nextCombo(long[] bits, int from) {
+        if (from >= COMBOS) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long rest = bits[word] & -1L << from;
+        while (rest == 0) {
+            if (++word == WORDS) {
+                return -1;
+            }
+            rest = bits[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(rest);
+    }
+
+    static long[] newBits() {
+        return new long[WORDS];
+    }
+
+    private static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HandRange)) return false;
+        HandRange other = (HandRange) o;
+        if (!Arrays.equals(bits, other.bits)) {
+            return false;
+        }
+        for (int combo : combos) {
+            if (getWeight(combo) != other.getWeight(combo)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,165 @@
+package com.equitycalc.range;
+
+import com.equitycalc.model.Card;
+
+/**
+ * Compiles normalised range text (see {@link HandRange#normalise(String)}) into a {@link HandRange}.
+ */
+final class RangeParser {
+    private static final int SUITS = 4;
+    private static final int ACE = Card.Rank.ACE.ordinal();
+
+    private final long[] bits = HandRange.newBits();
+    private final float[] weights = new float[HandRange.COMBOS];
+
+    private RangeParser() {
+    }
+
+    static HandRange parse(String text) {
+        RangeParser parser = new RangeParser();
+        if (!text.isEmpty()) {
+            for (String token : text.split(",", -1)) {
+                parser.parseToken(token);
+            }
+        }
+        return parser.build(text);
+    }
+
+    private void parseToken(String token) {
+        float weight = 1f;
+        String spec = token;
+        int colon = token.indexOf(':');
+        if (colon >= 0) {
+            spec = token.substring(0, colon);
+            weight = parseWeight(token, token.substring(colon + 1));
+        }
+
+        if (spec.length() == 4 && isSuit(spec.charAt(1)) && isSuit(spec.charAt(3))) {
+            Card first = new Card(spec.substring(0, 2));
+            Card second = new Card(spec.substring(2, 4));
+            if (first.equals(second)) {
+                throw invalid(token);
+            }
+            set(HandRange.comboIndex(first.toBits(), second.toBits()), weight);
+            return;
+        }
+
+        int dash = spec.indexOf('-');
+        if (dash >= 0) {
+            HandClass from = HandClass.parse(spec.substring(0, dash), token);
+            HandClass to = HandClass.parse(spec.substring(dash + 1), token);
+            if (from.isPair() != to.isPair() || from.suffix != to.suffix
+                    || !from.isPair() && from.high != to.high) {
+                throw invalid(token);
+            }
+            if (from.isPair()) {
+                for (int rank = Math.min(from.high, to.high); rank <= Math.max(from.high, to.high); rank++) {
+                    addClass(rank, rank, from.suffix, weight);
+                }
+            } else {
+                for (int rank = Math.min(from.low, to.low); rank <= Math.max(from.low, to.low); rank++) {
+                    addClass(from.high, rank, from.suffix, weight);
+                }
+            }
+        } else if (spec.endsWith("+")) {
+            HandClass base = HandClass.parse(spec.substring(0, spec.length() - 1), token);
+            int top = base.isPair() ? ACE : base.high - 1;
+            for (int rank = base.low; rank <= top; rank++) {
+                addClass(base.isPair() ? rank : base.high, rank, base.suffix, weight);
+            }
+        } else {
+            HandClass single = HandClass.parse(spec, token);
+            addClass(single.high, single.low, single.suffix, weight);
+        }
+    }
+
+    private static float parseWeight(String token, String text) {
+        float weight;
+        try {
+            weight = Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw invalid(token);
+        }
+        if (!(weight >= 0 && weight <= 1)) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + token);
+        }
+        return weight;
+    }
+
+    // Every combo of two ranks: suffix 's' suited, 'o' offsuit, 0 either
+    private void addClass(int high, int low, char suffix, float weight) {
+        for (int suit1 = 0; suit1 < SUITS; suit1++) {
+            for (int suit2 = 0; suit2 < SUITS; suit2++) {
+                if (high == low ? suit2 <= suit1 : suffix == 's' ? suit1 != suit2 : suffix == 'o' && suit1 == suit2) {
+                    continue;
+                }
+                set(HandRange.comboIndex(high << Card.SUIT_BITS | suit1, low << Card.SUIT_BITS | suit2), weight);
+            }
+        }
+    }
+
+    private void set(int combo, float weight) {
+        if (weight > 0) {
+            bits[combo >>> 6] |= 1L << combo;
+        } else {
+            bits[combo >>> 6] &= ~(1L << combo);
+        }
+        weights[combo] = weight;
+    }
+
+    private HandRange build(String text) {
+        for (int combo = HandRange.nextCombo(bits, 0); combo >= 0; combo = HandRange.nextCombo(bits, combo + 1)) {
+            if (weights[combo] != 1f) {
+                return new HandRange(bits, weights, text);
+            }
+        }
+        return new HandRange(bits, null, text);
+    }
+
+    private static boolean isSuit(char c) {
+        return "shdc".indexOf(c) >= 0;
+    }
+
+    private static IllegalArgumentException invalid(String token) {
+        return new IllegalArgumentException("Invalid range token: '" + token + "'");
+    }
+
+    // Two ranks, high first, with an optional suited/offsuit suffix
+    private static final class HandClass {
+        final int high;
+        final int low;
+        final char suffix;
+
+        private HandClass(int high, int low, char suffix) {
+            this.high = high;
+            this.low = low;
+            this.suffix = suffix;
+        }
+
+        boolean isPair() {
+            return high == low;
+        }
+
+        static HandClass parse(String text, String token) {
+            if (text.length() < 2 || text.length() > 3) {
+                throw invalid(token);
+            }
+            char suffix = text.length() == 3 ? text.charAt(2) : 0;
+            if (suffix != 0 && suffix != 's' && suffix != 'o') {
+                throw invalid(token);
+            }
+            int first;
+            int second;
+            try {
+                first = Card.Rank.fromSymbol(text.charAt(0)).ordinal();
+                second = Card.Rank.fromSymbol(text.charAt(1)).ordinal();
+            } catch (IllegalArgumentException e) {
+                throw invalid(token);
+            }
+            if (first == second && suffix != 0) {
+                throw invalid(token);
+            }
+            return new HandClass(Math.max(first, second), Math.min(first, second), suffix);
+        }
+    }
+}
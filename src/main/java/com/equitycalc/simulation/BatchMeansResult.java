@@ -0,0 +1,106 @@
+package com.equitycalc.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Showdown counts from correlated hands, such as the consecutive deals of a
+ * Markov chain, with standard errors from batch means.
+ *
+ * <p>Hands are added in consecutive batches. When batches are much longer than
+ * the correlation between hands, their equities are nearly independent, so
+ * the spread of the batch equities gives the standard error of the overall
+ * equity where the per-hand variance would understate it. With fewer than
+ * {@link #MIN_BATCHES} batches the error is unknown and reported as infinite,
+ * so stopping rules such as {@link PrecisionTarget} never accept it.
+ */
+public class BatchMeansResult extends SimulationResult {
+    /** Batches needed before a standard error is reported. */
+    public static final int MIN_BATCHES = 2;
+
+    // Per batch: hands, and each player's equity over the batch
+    private long[] batchHands = new long[8];
+    private double[][] batchEquities = new double[8][];
+    private int batches;
+
+    public BatchMeansResult(int numPlayers) {
+        super(numPlayers);
+    }
+
+    /**
+     * Adds a batch of consecutive hands.
+     */
+    public void addBatch(SimulationResult batch) {
+        if (batch.getTotalHands() == 0) {
+            return;
+        }
+        super.merge(batch);
+        double[] equities = new double[getNumPlayers()];
+        for (int i = 0; i < equities.length; i++) {
+            equities[i] = batch.getEquity(i);
+        }
+        appendBatch(batch.getTotalHands(), equities);
+    }
+
+    private void appendBatch(long hands, double[] equities) {
+        if (batches == batchHands.length) {
+            batchHands = Arrays.copyOf(batchHands, batches * 2);
+            batchEquities = Arrays.copyOf(batchEquities, batches * 2);
+        }
+        batchHands[batches] = hands;
+        batchEquities[batches] = equities;
+        batches++;
+    }
+
+    /**
+     * Adds the batches of another batch-means result, such as a later run of
+     * the same chain.
+     *
+     * @throws IllegalArgumentException if {@code other} is not a batch-means result
+     */
+    @Override
+    public void merge(SimulationResult other) {
+        if (!(other instanceof BatchMeansResult)) {
+            throw new IllegalArgumentException("Only batch-means results can be merged into one");
+        }
+        super.merge(other);
+        BatchMeansResult batched = (BatchMeansResult) other;
+        int count = batched.batches;
+        for (int b = 0; b < count; b++) {
+            appendBatch(batched.batchHands[b], batched.batchEquities[b]);
+        }
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * Standard error of {@link #getEquity(int)} from the spread of the batch
+     * equities, infinite with fewer than {@link #MIN_BATCHES} batches.
+     */
+    @Override
+    public double getEquityStandardError(int playerIndex) {
+        if (batches < MIN_BATCHES) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = getEquity(playerIndex);
+        double sum = 0;
+        for (int b = 0; b < batches; b++) {
+            double deviation = batchEquities[b][playerIndex] - mean;
+            sum += batchHands[b] * deviation * deviation;
+        }
+        return Math.sqrt(sum / (batches - 1) / getTotalHands());
+    }
+
+    /**
+     * Independent hands that would give the same standard error: the total
+     * hands scaled by the per-hand variance over the batch-means variance.
+     */
+    public double getEffectiveSampleSize(int playerIndex) {
+        double error = getEquityStandardError(playerIndex);
+        if (error == 0) {
+            return getTotalHands();
+        }
+        return getEquityVariance(playerIndex) / (error * error);
+    }
+}
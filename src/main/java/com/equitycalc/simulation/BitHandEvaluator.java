@@ -4,743 +4,353 @@ import com.equitycalc.model.Card;
 import com.equitycalc.model.PokerHand;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Direct 5/6/7-card evaluator over the {@link Card#toBits()} mask layout
+ * (bit {@code rank * 4 + suit}).
+ *
+ * <p>{@link #evaluate(long)} returns a primitive strength: higher is better and
+ * equal strengths are exact ties. The value is the category base plus a dense
+ * index inside the category, so every strength fits in a {@code char} and can
+ * be stored in compact lookup tables. {@link #toHandRanking(int)} decodes a
+ * strength into a {@link HandRanking} for display.
+ */
+public class BitHandEvaluator {
+    private static final int RANK_COUNT = 13;
+    private static final int RANK_SET_SIZE = 1 << RANK_COUNT;
 
+    // Number of distinct strength values in each category, indexed by HandRanking.Type ordinal
+    private static final int[] CATEGORY_SIZES = {
+        1287,       // HIGH_CARD: any 5 of 13 ranks
+        13 * 286,   // ONE_PAIR: pair rank x 3 kickers
+        78 * 13,    // TWO_PAIR: 2 pair ranks x kicker
+        13 * 78,    // THREE_OF_A_KIND: trips rank x 2 kickers
+        10,         // STRAIGHT: 5-high to ace-high
+        1287,       // FLUSH
+        13 * 13,    // FULL_HOUSE: trips rank x pair rank
+        13 * 13,    // FOUR_OF_A_KIND: quads rank x kicker
+        10          // STRAIGHT_FLUSH
+    };
+    private static final int[] CATEGORY_BASE = new int[CATEGORY_SIZES.length];
+
+    private static final int HIGH_CARD_BASE;
+    private static final int ONE_PAIR_BASE;
+    private static final int TWO_PAIR_BASE;
+    private static final int THREE_OF_A_KIND_BASE;
+    private static final int STRAIGHT_BASE;
+    private static final int FLUSH_BASE;
+    private static final int FULL_HOUSE_BASE;
+    private static final int FOUR_OF_A_KIND_BASE;
+    private static final int STRAIGHT_FLUSH_BASE;
+
+    /** Largest strength returned by {@link #evaluate(long)}; 0 is never returned. */
+    public static final int MAX_STRENGTH;
+
+    // Lookup tables over 13-bit rank sets
+    private static final byte[] STRAIGHT_HIGH = new byte[RANK_SET_SIZE];
+    private static final short[] TOP_FIVE = new short[RANK_SET_SIZE];
+    private static final char[] SUBSET_INDEX = new char[RANK_SET_SIZE];
+    private static final char[][] SUBSETS = new char[RANK_COUNT + 1][];
+    // Per byte of a card mask (two ranks, four suits): rank bits spread into four 16-bit suit lanes
+    private static final long[] SUIT_SPREAD = new long[256];
+
+    // Optional lookup statistics for evaluateHand, enabled with -Dequitycalc.evaluator.stats=true.
+    // A hit is a five-card hand served from FiveCardLookup, a miss a larger hand evaluated directly.
+    private static final boolean STATS_ENABLED = Boolean.getBoolean("equitycalc.evaluator.stats");
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
 
-public class BitHandEvaluator {
-    // Lookup tables
-    private static final long[] STRAIGHT_MASKS;
-    private static final long[] FLUSH_MASKS;
-    private static final int[] RANK_COUNT_LOOKUP;
-
-    private static final Map<Long, HandRanking> HAND_CACHE = new ConcurrentHashMap<>();
-    private static final AtomicLong cacheHits = new AtomicLong();
-    private static final AtomicLong cacheMisses = new AtomicLong();
-    
     // Initialize lookup tables
     static {
-        STRAIGHT_MASKS = initStraightMasks();
-        FLUSH_MASKS = initFlushMasks();
-        RANK_COUNT_LOOKUP = initRankCountLookup();
-    }
+        int base = 1;
+        for (int i = 0; i < CATEGORY_SIZES.length; i++) {
+            CATEGORY_BASE[i] = base;
+            base += CATEGORY_SIZES[i];
+        }
+        MAX_STRENGTH = base - 1;
+        HIGH_CARD_BASE = CATEGORY_BASE[HandRanking.Type.HIGH_CARD.ordinal()];
+        ONE_PAIR_BASE = CATEGORY_BASE[HandRanking.Type.ONE_PAIR.ordinal()];
+        TWO_PAIR_BASE = CATEGORY_BASE[HandRanking.Type.TWO_PAIR.ordinal()];
+        THREE_OF_A_KIND_BASE = CATEGORY_BASE[HandRanking.Type.THREE_OF_A_KIND.ordinal()];
+        STRAIGHT_BASE = CATEGORY_BASE[HandRanking.Type.STRAIGHT.ordinal()];
+        FLUSH_BASE = CATEGORY_BASE[HandRanking.Type.FLUSH.ordinal()];
+        FULL_HOUSE_BASE = CATEGORY_BASE[HandRanking.Type.FULL_HOUSE.ordinal()];
+        FOUR_OF_A_KIND_BASE = CATEGORY_BASE[HandRanking.Type.FOUR_OF_A_KIND.ordinal()];
+        STRAIGHT_FLUSH_BASE = CATEGORY_BASE[HandRanking.Type.STRAIGHT_FLUSH.ordinal()];
 
-    private static class RankAnalysis {
-        final int[] rankCounts;
-        long rankBits;
-        final int maxCount;
-        final int pairCount;
-        
-        RankAnalysis(long cardBits) {
-            rankCounts = new int[Card.Rank.values().length];
-            rankBits = 0L;
-            
-            // Use lookup table for rank counting
-            for (int i = 0; i < 52; i += 4) { // Process 4 bits at a time
-                int rankIndex = (int)((cardBits >> i) & 0xF);
-                if (rankIndex > 0) {
-                    rankCounts[i >> 2] = RANK_COUNT_LOOKUP[rankIndex];
-                    if (rankCounts[i >> 2] > 0) {
-                        rankBits |= (1L << (i >> 2));
-                    }
-                }
-            }
-            
-            // Calculate derived values
-            int maxCount = 0;
-            int pairs = 0;
-            for (int count : rankCounts) {
-                if (count > maxCount) maxCount = count;
-                if (count == 2) pairs++;
-            }
-            this.maxCount = maxCount;
-            this.pairCount = pairs;
-        }
+        initRankSetTables();
+        initSuitSpread();
     }
 
-    private static RankAnalysis analyzeRanks(long cardBits) {
-        return new RankAnalysis(cardBits);
-    }
-    
-    // Main evaluation methods
-    public static HandRanking evaluateHand(PokerHand hand) throws InterruptedException, ExecutionException {
-        if (hand == null) {
-            throw new IllegalArgumentException("Hand cannot be null");
-        }
-        
-        int numCards = hand.getCardCount();
-        if (numCards < 5) {
-            throw new IllegalArgumentException("Hand must contain at least 5 cards, found: " + numCards);
+    private static void initRankSetTables() {
+        int[] subsetCounts = new int[RANK_COUNT + 1];
+        for (int k = 0; k <= RANK_COUNT; k++) {
+            SUBSETS[k] = new char[(int) binomial(RANK_COUNT, k)];
         }
-        
-        // Handle 5-card hands directly
-        if (numCards == 5) {
-            long bits = hand.toBitMask();
-            HandRanking cached = HAND_CACHE.get(bits);
-            if (cached != null) {
-                cacheHits.incrementAndGet();
-                return cached;
-            }
-            return HAND_CACHE.computeIfAbsent(bits, key -> {
-                cacheMisses.incrementAndGet();
-                return evaluateFiveCardBits(key);
-            });
+
+        for (int ranks = 0; ranks < RANK_SET_SIZE; ranks++) {
+            // Masks of equal size compare numerically in the same order as their
+            // ranks compare lexicographically, so numeric order is strength order
+            int size = Integer.bitCount(ranks);
+            SUBSET_INDEX[ranks] = (char) subsetCounts[size];
+            SUBSETS[size][subsetCounts[size]++] = (char) ranks;
+
+            TOP_FIVE[ranks] = (short) keepHighest(ranks, 5);
+            STRAIGHT_HIGH[ranks] = (byte) straightHigh(ranks);
         }
-        
-        long handBits = hand.toBitMask();
-        List<Long> combinations = generateCombinations(handBits, numCards);
-        
-        // Single parallel stream with work stealing
-        return combinations.parallelStream()
-            .map(bits -> {
-                HandRanking cached = HAND_CACHE.get(bits);
-                if (cached != null) {
-                    cacheHits.incrementAndGet();
-                    return cached;
-                }
-                return HAND_CACHE.computeIfAbsent(bits, key -> {
-                    cacheMisses.incrementAndGet();
-                    return evaluateFiveCardBits(key);
-                });
-            })
-            .max(HandRanking::compareTo)
-            .orElseThrow(() -> new IllegalStateException("No valid combinations"));
     }
 
-    private static List<Long> generateCombinations(long handBits, int numCards) {
-        List<Long> combinations = new ArrayList<>();
-        // Pre-calculate all combinations
-        int[] cardIndices = new int[numCards];
-        int idx = 0;
-        for (int i = 0; i < 52; i++) {
-            if ((handBits & (1L << i)) != 0) {
-                cardIndices[idx++] = i;
+    private static void initSuitSpread() {
+        for (int b = 0; b < 256; b++) {
+            long lanes = 0L;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((b & (1 << bit)) != 0) {
+                    int suit = bit & 3;
+                    int rankOffset = bit >>> Card.SUIT_BITS;
+                    lanes |= 1L << (suit * 16 + rankOffset);
+                }
             }
+            SUIT_SPREAD[b] = lanes;
         }
-        
-        // Generate 5-card combinations
-        combinationsHelper(cardIndices, 5, 0, new int[5], 0, combinations, handBits);
-        return combinations;
     }
-    
-    private static void combinationsHelper(int[] cards, int r, int start, int[] temp, int tempIndex,
-                                         List<Long> result, long handBits) {
-        if (tempIndex == r) {
-            long combination = 0L;
-            for (int i = 0; i < r; i++) {
-                combination |= 1L << temp[i];
+
+    private static int straightHigh(int ranks) {
+        for (int low = RANK_COUNT - 5; low >= 0; low--) {
+            int straight = 0x1F << low;
+            if ((ranks & straight) == straight) {
+                return low + 4;
             }
-            result.add(combination);
-            return;
         }
-        
-        for (int i = start; i <= cards.length - r + tempIndex; i++) {
-            temp[tempIndex] = cards[i];
-            combinationsHelper(cards, r, i + 1, temp, tempIndex + 1, result, handBits);
+        // Ace-low straight (A,2,3,4,5) is five-high
+        int wheel = (1 << Card.Rank.ACE.ordinal()) | 0xF;
+        if ((ranks & wheel) == wheel) {
+            return Card.Rank.FIVE.ordinal();
         }
+        return -1;
     }
-    
-    private static HandRanking evaluateFiveCardBits(long cardBits) {
-        // Validate input - must have exactly 5 cards
-        if (Card.countCards(cardBits) != 5) {
-            throw new IllegalArgumentException("Must evaluate exactly 5 cards, found: " + 
-                Card.countCards(cardBits));
-        }
-        
-        // Check hands from highest to lowest ranking
-        try {
-            // Straight Flush
-            if (isStraightFlush(cardBits)) {
-                List<Card.Rank> ranks = getStraightRanks(cardBits);
-                return new HandRanking(HandRanking.Type.STRAIGHT_FLUSH, ranks);
-            }
-            
-            // Four of a Kind
-            if (isFourOfAKind(cardBits)) {
-                List<Card.Rank> ranks = getFourOfAKindRanks(cardBits);
-                return new HandRanking(HandRanking.Type.FOUR_OF_A_KIND, ranks);
-            }
-            
-            // Full House
-            if (isFullHouse(cardBits)) {
-                List<Card.Rank> ranks = getFullHouseRanks(cardBits);
-                return new HandRanking(HandRanking.Type.FULL_HOUSE, ranks);
-            }
-            
-            // Flush
-            if (isFlush(cardBits)) {
-                List<Card.Rank> ranks = getFlushRanks(cardBits);
-                return new HandRanking(HandRanking.Type.FLUSH, ranks);
-            }
-            
-            // Straight
-            if (isStraight(cardBits)) {
-                List<Card.Rank> ranks = getStraightRanks(cardBits);
-                return new HandRanking(HandRanking.Type.STRAIGHT, ranks);
-            }
-            
-            // Three of a Kind
-            if (isThreeOfAKind(cardBits)) {
-                List<Card.Rank> ranks = getThreeOfAKindRanks(cardBits);
-                return new HandRanking(HandRanking.Type.THREE_OF_A_KIND, ranks);
-            }
-            
-            // Two Pair
-            if (isTwoPair(cardBits)) {
-                List<Card.Rank> ranks = getTwoPairRanks(cardBits);
-                return new HandRanking(HandRanking.Type.TWO_PAIR, ranks);
-            }
-            
-            // One Pair
-            if (isOnePair(cardBits)) {
-                List<Card.Rank> ranks = getOnePairRanks(cardBits);
-                return new HandRanking(HandRanking.Type.ONE_PAIR, ranks);
-            }
-            
-            // High Card
-            List<Card.Rank> ranks = getHighCardRanks(cardBits);
-            return new HandRanking(HandRanking.Type.HIGH_CARD, ranks);
-            
-        } catch (IllegalArgumentException e) {
-            throw new IllegalStateException("Error evaluating hand: " + e.getMessage(), e);
+
+    private static int keepHighest(int ranks, int count) {
+        while (Integer.bitCount(ranks) > count) {
+            ranks &= ranks - 1;
         }
+        return ranks;
     }
-    
-    // Helper methods
-    private static long[] initStraightMasks() {
-        // We need 10 possible straights including Ace-low
-        long[] straightMasks = new long[10];
-        
-        // Generate regular straights (T-A through 2-6)
-        for (int i = 0; i < 9; i++) {
-            long mask = 0L;
-            // For each straight, set bits for 5 consecutive ranks
-            for (int rank = i; rank < i + 5; rank++) {
-                // For each rank, set bits for all suits
-                for (int suit = 0; suit < 4; suit++) {
-                    int bitPosition = (rank << Card.SUIT_BITS) | suit;
-                    mask |= 1L << bitPosition;
-                }
-            }
-            straightMasks[i] = mask;
-        }
-        
-        // Handle Ace-low straight (A,2,3,4,5)
-        long aceLowMask = 0L;
-        // Add Ace bits (all suits)
-        for (int suit = 0; suit < 4; suit++) {
-            int aceBitPosition = (Card.Rank.ACE.ordinal() << Card.SUIT_BITS) | suit;
-            aceLowMask |= 1L << aceBitPosition;
-        }
-        // Add 2,3,4,5 bits (all suits)
-        for (int rank = 0; rank < 4; rank++) {
-            for (int suit = 0; suit < 4; suit++) {
-                int bitPosition = (rank << Card.SUIT_BITS) | suit;
-                aceLowMask |= 1L << bitPosition;
-            }
-        }
-        straightMasks[9] = aceLowMask;
-        
-        return straightMasks;
+
+    private static int highest(int ranks) {
+        return 31 - Integer.numberOfLeadingZeros(ranks);
     }
-    
-    private static long[] initFlushMasks() {
-        // One mask for each suit
-        long[] flushMasks = new long[4];
-        
-        // Generate mask for each suit
-        for (int suit = 0; suit < 4; suit++) {
-            long mask = 0L;
-            // Set bits for all 13 ranks of this suit
-            for (int rank = 0; rank < 13; rank++) {
-                int bitPosition = (rank << Card.SUIT_BITS) | suit;
-                mask |= 1L << bitPosition;
-            }
-            flushMasks[suit] = mask;
+
+    private static long binomial(int n, int k) {
+        if (k < 0 || k > n) return 0;
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
         }
-        
-        return flushMasks;
+        return result;
     }
-    
-    private static int[] initRankCountLookup() {
-        // Create lookup table for 13 possible ranks (2^13 combinations)
-        int[] rankCountLookup = new int[1 << 13];
-        
-        // For each possible combination of ranks
-        for (int i = 0; i < rankCountLookup.length; i++) {
-            int count = 0;
-            int pattern = i;
-            
-            // Count bits set to 1 (representing present ranks)
-            while (pattern != 0) {
-                count += pattern & 1;
-                pattern >>>= 1;
-            }
-            
-            rankCountLookup[i] = count;
-        }
-        
-        return rankCountLookup;
+
+    /**
+     * Evaluates 5 to 7 cards given as a {@link Card#toBits()} bit mask.
+     * Allocation-free; the mask is not validated.
+     *
+     * @return strength in {@code [1, MAX_STRENGTH]}, higher is better
+     */
+    public static int evaluate(long cards) {
+        // Spread each byte (two ranks x four suits) into per-suit 13-bit rank sets
+        long bySuit = SUIT_SPREAD[(int) cards & 0xFF]
+            | SUIT_SPREAD[(int) (cards >>> 8) & 0xFF] << 2
+            | SUIT_SPREAD[(int) (cards >>> 16) & 0xFF] << 4
+            | SUIT_SPREAD[(int) (cards >>> 24) & 0xFF] << 6
+            | SUIT_SPREAD[(int) (cards >>> 32) & 0xFF] << 8
+            | SUIT_SPREAD[(int) (cards >>> 40) & 0xFF] << 10
+            | SUIT_SPREAD[(int) (cards >>> 48) & 0xFF] << 12;
+        int spades = (int) bySuit & 0x1FFF;
+        int hearts = (int) (bySuit >>> 16) & 0x1FFF;
+        int diamonds = (int) (bySuit >>> 32) & 0x1FFF;
+        int clubs = (int) (bySuit >>> 48) & 0x1FFF;
+        return evaluateSuits(spades, hearts, diamonds, clubs);
     }
-    
-    // Bit manipulation helpers
-    private static boolean isStraightFlush(long cardBits) {
-        if (Card.countCards(cardBits) != 5) {
-            return false;
-        }
-        
-        // Check each suit
-        for (long flushMask : FLUSH_MASKS) {
-            long suitCards = cardBits & flushMask;
-            if (Card.countCards(suitCards) == 5) {
-                // Found flush, now check if these cards form a straight
-                long rankBits = 0L;
-                for (int i = 0; i < 52; i++) {
-                    if ((suitCards & (1L << i)) != 0) {
-                        int rank = i >> Card.SUIT_BITS;
-                        rankBits |= (1L << rank);
-                    }
-                }
-                
-                // Check each straight pattern
-                for (long straightMask : STRAIGHT_MASKS) {
-                    boolean isMatch = true;
-                    for (int i = 0; i < 13; i++) {
-                        if ((straightMask & (1L << (i * 4))) != 0) {
-                            if ((rankBits & (1L << i)) == 0) {
-                                isMatch = false;
-                                break;
-                            }
-                        }
-                    }
-                    if (isMatch) {
-                        return true;
-                    }
-                }
-            }
+
+    /**
+     * Evaluates {@code masks[from..to)} into {@code out[from..to)}. Each mask holds
+     * 5 to 7 cards; seven-card masks are served from the {@link SevenCardLookup}
+     * tables. Allocation-free, so callers can reuse both arrays across batches.
+     */
+    public static void evaluateBatch(long[] masks, int[] out, int from, int to) {
+        Objects.checkFromToIndex(from, to, masks.length);
+        Objects.checkFromToIndex(from, to, out.length);
+        for (int i = from; i < to; i++) {
+            long cards = masks[i];
+            out[i] = Long.bitCount(cards) == SevenCardLookup.HAND_SIZE
+                ? SevenCardLookup.evaluate(cards)
+                : evaluate(cards);
         }
-        
-        return false;
-    }
-    
-    private static boolean isFourOfAKind(long cardBits) {
-        if (Card.countCards(cardBits) != 5) return false;
-        return analyzeRanks(cardBits).maxCount == 4;
-    }
-    
-    private static boolean isFullHouse(long cardBits) {
-        if (Card.countCards(cardBits) != 5) return false;
-        RankAnalysis analysis = analyzeRanks(cardBits);
-        return analysis.maxCount == 3 && analysis.pairCount == 1;
     }
-    
-    private static boolean isFlush(long cardBits) {
-        if (Card.countCards(cardBits) != 5) {
-            return false;
+
+    /**
+     * Evaluates 5 to 7 cards given as one 13-bit rank set per suit.
+     */
+    static int evaluateSuits(int spades, int hearts, int diamonds, int clubs) {
+        // With at most 7 cards a flush excludes quads and full houses
+        int flush = Integer.bitCount(spades) >= 5 ? spades
+            : Integer.bitCount(hearts) >= 5 ? hearts
+            : Integer.bitCount(diamonds) >= 5 ? diamonds
+            : Integer.bitCount(clubs) >= 5 ? clubs
+            : 0;
+        if (flush != 0) {
+            int high = STRAIGHT_HIGH[flush];
+            if (high >= 0) {
+                return STRAIGHT_FLUSH_BASE + high - Card.Rank.FIVE.ordinal();
+            }
+            return FLUSH_BASE + SUBSET_INDEX[TOP_FIVE[flush]];
+        }
+
+        int ranks = spades | hearts | diamonds | clubs;
+        int quads = spades & hearts & diamonds & clubs;
+        if (quads != 0) {
+            int quadRank = highest(quads);
+            return FOUR_OF_A_KIND_BASE + quadRank * RANK_COUNT + highest(ranks ^ (1 << quadRank));
         }
-        
-        // Check each suit using pre-computed flush masks
-        for (long flushMask : FLUSH_MASKS) {
-            // If all bits in cardBits are in one suit's mask and count is 5,
-            // then it's a flush
-            if (Card.countCards(cardBits & flushMask) == 5) {
-                return true;
+
+        int pairs = (spades & hearts) | (diamonds & clubs) | ((spades | hearts) & (diamonds | clubs));
+        int trips = (spades & hearts & (diamonds | clubs)) | (diamonds & clubs & (spades | hearts));
+        int tripsRank = -1;
+        if (trips != 0) {
+            tripsRank = highest(trips);
+            int pairRanks = pairs & ~(1 << tripsRank);
+            if (pairRanks != 0) {
+                return FULL_HOUSE_BASE + tripsRank * RANK_COUNT + highest(pairRanks);
             }
         }
-        
-        return false;
-    }
-    
-    private static boolean isStraight(long cardBits) {
-        if (Card.countCards(cardBits) != 5) {
-            return false;
+
+        int high = STRAIGHT_HIGH[ranks];
+        if (high >= 0) {
+            return STRAIGHT_BASE + high - Card.Rank.FIVE.ordinal();
         }
-        
-        // Get unique ranks (remove suit information)
-        long rankBits = 0L;
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                int rank = i >> Card.SUIT_BITS;
-                rankBits |= (1L << rank);
-            }
+
+        if (tripsRank >= 0) {
+            int kickers = keepHighest(ranks & ~(1 << tripsRank), 2);
+            return THREE_OF_A_KIND_BASE + tripsRank * 78 + SUBSET_INDEX[kickers];
         }
-        
-        // Check each straight pattern using pre-computed masks
-        for (long straightMask : STRAIGHT_MASKS) {
-            // For each straight pattern, check if we have one card of each required rank
-            boolean isMatch = true;
-            for (int i = 0; i < 13; i++) {
-                // If this rank is required by the straight pattern
-                if ((straightMask & (1L << (i * 4))) != 0) {
-                    // Check if we have a card of this rank
-                    if ((rankBits & (1L << i)) == 0) {
-                        isMatch = false;
-                        break;
-                    }
-                }
-            }
-            if (isMatch) {
-                return true;
+
+        if (pairs != 0) {
+            if (Integer.bitCount(pairs) >= 2) {
+                int topPairs = keepHighest(pairs, 2);
+                return TWO_PAIR_BASE + SUBSET_INDEX[topPairs] * RANK_COUNT + highest(ranks & ~topPairs);
             }
+            int pairRank = highest(pairs);
+            int kickers = keepHighest(ranks & ~pairs, 3);
+            return ONE_PAIR_BASE + pairRank * 286 + SUBSET_INDEX[kickers];
         }
-        
-        return false;
-    }
-
-    private static boolean isThreeOfAKind(long cardBits) {
-        if (Card.countCards(cardBits) != 5) return false;
-        RankAnalysis analysis = analyzeRanks(cardBits);
-        return analysis.maxCount == 3 && analysis.pairCount == 0;
-    }
 
-    private static boolean isTwoPair(long cardBits) {
-        if (Card.countCards(cardBits) != 5) return false;
-        return analyzeRanks(cardBits).pairCount == 2;
+        return HIGH_CARD_BASE + SUBSET_INDEX[TOP_FIVE[ranks]];
     }
 
-    private static boolean isOnePair(long cardBits) {
-        if (Card.countCards(cardBits) != 5) return false;
-        RankAnalysis analysis = analyzeRanks(cardBits);
-        return analysis.pairCount == 1 && analysis.maxCount == 2;
-    }
-    
-    // Rank extraction helpers
-    private static List<Card.Rank> getHighestRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> ranks = new ArrayList<>();
-        
-        // Process each bit position
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                // Extract rank from bit position (rank is in upper 4 bits)
-                Card card = Card.fromBits(i);
-                ranks.add(card.getRank());
+    /**
+     * Returns the hand category of a strength produced by {@link #evaluate(long)}.
+     */
+    public static HandRanking.Type category(int strength) {
+        HandRanking.Type[] types = HandRanking.Type.values();
+        for (int i = types.length - 1; i >= 0; i--) {
+            if (strength >= CATEGORY_BASE[i]) {
+                return types[i];
             }
         }
-        
-        // Sort ranks in descending order
-        Collections.sort(ranks, Collections.reverseOrder());
-        
-        return ranks;
+        throw new IllegalArgumentException("Invalid hand strength: " + strength);
     }
-    
-    private static List<Card.Rank> getFourOfAKindRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        int[] rankCounts = new int[Card.Rank.values().length];
-        
-        // Count ranks using bit manipulation
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                Card card = Card.fromBits(i);
-                rankCounts[card.getRank().ordinal()]++;
-            }
-        }
-        
-        // Find four of a kind rank
-        Card.Rank quadRank = null;
-        for (int i = 0; i < rankCounts.length; i++) {
-            if (rankCounts[i] == 4) {
-                quadRank = Card.Rank.values()[i];
+
+    /**
+     * Decodes a strength produced by {@link #evaluate(long)} into a {@link HandRanking}.
+     */
+    public static HandRanking toHandRanking(int strength) {
+        if (strength < 1 || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException("Invalid hand strength: " + strength);
+        }
+        HandRanking.Type type = category(strength);
+        int index = strength - CATEGORY_BASE[type.ordinal()];
+        List<Card.Rank> ranks = new ArrayList<>(5);
+
+        switch (type) {
+            case STRAIGHT_FLUSH:
+            case STRAIGHT:
+                ranks.add(rank(index + Card.Rank.FIVE.ordinal()));
                 break;
-            }
-        }
-        
-        if (quadRank == null) {
-            throw new IllegalArgumentException("No four of a kind found in bit mask");
-        }
-        
-        // Add quad rank first
-        result.add(quadRank);
-        
-        // Add highest kicker
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 1) {
-                result.add(Card.Rank.values()[i]);
+            case FOUR_OF_A_KIND:
+            case FULL_HOUSE:
+                ranks.add(rank(index / RANK_COUNT));
+                ranks.add(rank(index % RANK_COUNT));
                 break;
-            }
-        }
-        
-        return result;
-    }
-    
-    private static List<Card.Rank> getFullHouseRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        int[] rankCounts = new int[Card.Rank.values().length];
-        
-        // Count ranks
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                Card card = Card.fromBits(i);
-                rankCounts[card.getRank().ordinal()]++;
-            }
-        }
-        
-        // Find trips rank (highest if multiple)
-        Card.Rank tripsRank = null;
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 3) {
-                tripsRank = Card.Rank.values()[i];
+            case FLUSH:
+            case HIGH_CARD:
+                addRanksDescending(ranks, SUBSETS[5][index]);
                 break;
-            }
-        }
-        
-        // Find pair rank (highest if multiple)
-        Card.Rank pairRank = null;
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 2) {
-                pairRank = Card.Rank.values()[i];
+            case THREE_OF_A_KIND:
+                ranks.add(rank(index / 78));
+                addRanksDescending(ranks, SUBSETS[2][index % 78]);
+                break;
+            case TWO_PAIR:
+                addRanksDescending(ranks, SUBSETS[2][index / RANK_COUNT]);
+                ranks.add(rank(index % RANK_COUNT));
+                break;
+            case ONE_PAIR:
+                ranks.add(rank(index / 286));
+                addRanksDescending(ranks, SUBSETS[3][index % 286]);
                 break;
-            }
-        }
-        
-        if (tripsRank == null || pairRank == null) {
-            throw new IllegalArgumentException("No full house found in bit mask");
         }
-        
-        result.add(tripsRank);
-        result.add(pairRank);
-        
-        return result;
+        return new HandRanking(type, ranks);
     }
 
-    private static List<Card.Rank> getFlushRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        
-        // Find which suit has the flush
-        for (long flushMask : FLUSH_MASKS) {
-            long suitCards = cardBits & flushMask;
-            if (Card.countCards(suitCards) == 5) {
-                // Extract ranks from flush suit
-                for (int i = 0; i < 52; i++) {
-                    if ((suitCards & (1L << i)) != 0) {
-                        Card card = Card.fromBits(i);
-                        result.add(card.getRank());
-                    }
-                }
-                
-                // Sort ranks in descending order
-                Collections.sort(result, Collections.reverseOrder());
-                return result;
-            }
-        }
-        
-        throw new IllegalArgumentException("No flush found in bit mask");
+    private static Card.Rank rank(int ordinal) {
+        return Card.Rank.values()[ordinal];
     }
 
-    private static List<Card.Rank> getStraightRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        
-        // Get unique ranks
-        long rankBits = 0L;
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                int rank = i >> Card.SUIT_BITS;
-                rankBits |= (1L << rank);
-            }
+    private static void addRanksDescending(List<Card.Rank> ranks, int rankSet) {
+        while (rankSet != 0) {
+            int r = highest(rankSet);
+            ranks.add(rank(r));
+            rankSet ^= 1 << r;
         }
-        
-        // Check each straight pattern
-        for (int startRank = 0; startRank < 9; startRank++) {
-            boolean isMatch = true;
-            // Check 5 consecutive ranks
-            for (int offset = 0; offset < 5; offset++) {
-                if ((rankBits & (1L << (startRank + offset))) == 0) {
-                    isMatch = false;
-                    break;
-                }
-            }
-            if (isMatch) {
-                // Add highest rank first
-                result.add(Card.Rank.values()[startRank + 4]);
-                return result;
-            }
-        }
-        
-        // Check Ace-low straight (A,2,3,4,5)
-        if ((rankBits & (1L << Card.Rank.ACE.ordinal())) != 0) {
-            boolean isAceLow = true;
-            for (int rank = 0; rank < 4; rank++) {
-                if ((rankBits & (1L << rank)) == 0) {
-                    isAceLow = false;
-                    break;
-                }
-            }
-            if (isAceLow) {
-                result.add(Card.Rank.FIVE);
-                return result;
-            }
-        }
-        
-        throw new IllegalArgumentException("No straight found in bit mask");
     }
 
-    private static List<Card.Rank> getThreeOfAKindRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
+    // Main evaluation methods
+    public static HandRanking evaluateHand(PokerHand hand) throws InterruptedException, ExecutionException {
+        if (hand == null) {
+            throw new IllegalArgumentException("Hand cannot be null");
         }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        int[] rankCounts = new int[Card.Rank.values().length];
-        
-        // Count ranks
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                Card card = Card.fromBits(i);
-                rankCounts[card.getRank().ordinal()]++;
-            }
+
+        int numCards = hand.getCardCount();
+        if (numCards < 5) {
+            throw new IllegalArgumentException("Hand must contain at least 5 cards, found: " + numCards);
         }
-        
-        // Find trips rank
-        Card.Rank tripsRank = null;
-        for (int i = 0; i < rankCounts.length; i++) {
-            if (rankCounts[i] == 3) {
-                tripsRank = Card.Rank.values()[i];
-                break;
+
+        long bits = hand.toBitMask();
+
+        // 5-card hands come straight from the precomputed table
+        if (numCards == FiveCardLookup.HAND_SIZE) {
+            if (STATS_ENABLED) {
+                cacheHits.increment();
             }
+            return toHandRanking(FiveCardLookup.evaluate(bits));
         }
-        
-        if (tripsRank == null) {
-            throw new IllegalArgumentException("No three of a kind found in bit mask");
-        }
-        
-        // Add trips rank first
-        result.add(tripsRank);
-        
-        // Add remaining kickers in descending order
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 1) {
-                result.add(Card.Rank.values()[i]);
-            }
+
+        if (STATS_ENABLED) {
+            cacheMisses.increment();
         }
-        
-        return result;
+        return toHandRanking(evaluate(bits));
     }
 
-    private static List<Card.Rank> getTwoPairRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        int[] rankCounts = new int[Card.Rank.values().length];
-        
-        // Count ranks
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                Card card = Card.fromBits(i);
-                rankCounts[card.getRank().ordinal()]++;
-            }
-        }
-        
-        // Find pairs in descending order
-        List<Card.Rank> pairRanks = new ArrayList<>();
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 2) {
-                pairRanks.add(Card.Rank.values()[i]);
-            }
-        }
-        
-        if (pairRanks.size() != 2) {
-            throw new IllegalArgumentException("No two pair found in bit mask");
-        }
-        
-        // Add pairs in descending order
-        result.addAll(pairRanks);
-        
-        // Add kicker
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 1) {
-                result.add(Card.Rank.values()[i]);
-                break;
-            }
-        }
-        
-        return result;
+    public static long getCacheHits() {
+        return cacheHits.sum();
     }
 
-    private static List<Card.Rank> getOnePairRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-    
-        List<Card.Rank> result = new ArrayList<>();
-        int[] rankCounts = new int[Card.Rank.values().length];
-        
-        // Count ranks
-        for (int i = 0; i < 52; i++) {
-            if ((cardBits & (1L << i)) != 0) {
-                Card card = Card.fromBits(i);
-                rankCounts[card.getRank().ordinal()]++;
-            }
-        }
-        
-        // Find pair rank (search from high to low)
-        Card.Rank pairRank = null;
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 2) {
-                pairRank = Card.Rank.values()[i];
-                break;
-            }
-        }
-        
-        if (pairRank == null) {
-            throw new IllegalArgumentException("No pair found in bit mask");
-        }
-        
-        // Add pair rank first
-        result.add(pairRank);
-        
-        // Add remaining kickers in descending order
-        for (int i = rankCounts.length - 1; i >= 0; i--) {
-            if (rankCounts[i] == 1) {
-                result.add(Card.Rank.values()[i]);
-            }
-        }
-        
-        return result;
+    public static long getCacheMisses() {
+        return cacheMisses.sum();
     }
 
-    private static List<Card.Rank> getHighCardRanks(long cardBits) {
-        if (cardBits == 0) {
-            throw new IllegalArgumentException("No cards in bit mask");
-        }
-        
-        if (Card.countCards(cardBits) != 5) {
-            throw new IllegalArgumentException("High card hand must have exactly 5 cards");
-        }
-        
-        // getHighestRanks already sorts in descending order
-        List<Card.Rank> ranks = getHighestRanks(cardBits);
-        
-        // Verify no pairs or better
-        Set<Card.Rank> uniqueRanks = new HashSet<>(ranks);
-        if (uniqueRanks.size() != 5) {
-            throw new IllegalArgumentException("Cards contain pairs or better");
-        }
-        
-        return ranks;
+    public static void resetCacheStats() {
+        cacheHits.reset();
+        cacheMisses.reset();
     }
-}
\ No newline at end of file
+}
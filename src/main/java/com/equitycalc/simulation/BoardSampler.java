@@ -0,0 +1,14 @@
+package com.equitycalc.simulation;
+
+/**
+ * Source of random board completions for the Monte Carlo engines.
+ *
+ * <p>Implementations are stateful and not thread-safe; use one per thread.
+ */
+public interface BoardSampler {
+    /**
+     * Draws {@code count} distinct cards from the {@code live} card mask and
+     * returns them as a mask.
+     */
+    long nextBoard(long live, int count);
+}
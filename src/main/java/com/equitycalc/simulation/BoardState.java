@@ -0,0 +1,169 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+
+/**
+ * A five-card board prepared once so that each player's seven-card hand can be
+ * finished from the two hole cards alone.
+ *
+ * <p>{@link #set(long)} sums the board's suitless rank keys and records the one
+ * suit (if any) with three or more board cards, the only suit that can make a
+ * flush. A player's strength is then the board key plus two hole-card rank
+ * keys, looked up in the {@link SevenCardLookup} rank-multiset table. When no
+ * suit has three board cards, which holds for about 60% of runouts, no player
+ * can make a flush and the evaluation does no suit work at all. Otherwise the
+ * only suit work is counting the hole cards of the flush suit. Results equal
+ * {@link SevenCardLookup#evaluate(long)} of the board plus hole cards.
+ *
+ * <p>A straight flush on the board is also noted once per board, with the one
+ * card that would extend it upwards. When no player holds that card every
+ * player plays the board, so {@link #evaluateAll} fills in the board's
+ * strength without evaluating anyone and counts the skipped evaluations.
+ *
+ * <p>Instances are mutable and meant to be reused, one per thread.
+ */
+public final class BoardState {
+    public static final int BOARD_SIZE = 5;
+
+    private static final int FLUSH_SIZE = 5;
+    // Adding 5 to each suit count sets the nibble's top bit exactly when the count is 3 or more
+    private static final int FLUSH_DRAW_ADD = 0x5555;
+    private static final int FLUSH_DRAW_MASK = 0x8888;
+    private static final long SUIT_CARDS = 0x1111111111111L;
+    private static final int RANKS = 13;
+    private static final int STRAIGHT = 0x1F;
+    private static final int WHEEL = 0x100F;
+    private static final int SIX = 4;
+
+    private long board;
+    private int rankKey;
+    // Suit with at least three board cards, or -1 when no flush is possible
+    private int flushSuit = -1;
+    private long flushSuitCards;
+    private int flushSuitCount;
+    // Board straight flush strength, 0 if none, and the card that would beat it
+    private int straightFlush;
+    private long straightFlushBeater;
+    private long prunedEvaluations;
+
+    public BoardState() {
+    }
+
+    public BoardState(long board) {
+        set(board);
+    }
+
+    /**
+     * Prepares a new board given as a {@link Card#toBits()} mask of five cards.
+     */
+    public BoardState set(long board) {
+        if (Long.bitCount(board) != BOARD_SIZE) {
+            throw new IllegalArgumentException("Board must hold " + BOARD_SIZE + " cards");
+        }
+        return set(board, SevenCardLookup.cardKeys(board));
+    }
+
+    /**
+     * Prepares a board whose {@link SevenCardLookup#cardKeys(long)} sum the caller
+     * already maintains incrementally; neither argument is validated.
+     */
+    BoardState set(long board, long key) {
+        this.board = board;
+        this.rankKey = (int) (key >>> SevenCardLookup.RANK_KEY_SHIFT);
+        // Five cards leave room for at most one suit with three
+        int flushDraws = ((int) key + FLUSH_DRAW_ADD) & FLUSH_DRAW_MASK;
+        if (flushDraws == 0) {
+            flushSuit = -1;
+        } else {
+            flushSuit = Integer.numberOfTrailingZeros(flushDraws) >>> 2;
+            flushSuitCards = SUIT_CARDS << flushSuit;
+            flushSuitCount = (int) (key >>> (flushSuit * SevenCardLookup.SUIT_SHIFT)) & 0xF;
+        }
+        straightFlush = 0;
+        if (flushSuit >= 0 && flushSuitCount == FLUSH_SIZE) {
+            noteStraightFlush(SevenCardLookup.suitRanks(board, flushSuit));
+        }
+        return this;
+    }
+
+    private void noteStraightFlush(int ranks) {
+        int low = Integer.numberOfTrailingZeros(ranks);
+        int beater;
+        if (ranks == WHEEL) {
+            beater = SIX;
+        } else if (ranks == STRAIGHT << low) {
+            beater = low + FLUSH_SIZE;
+        } else {
+            return;
+        }
+        straightFlush = SevenCardLookup.flushStrength(ranks);
+        straightFlushBeater = beater < RANKS ? 1L << (beater * 4 + flushSuit) : 0L;
+    }
+
+    public long getBoard() {
+        return board;
+    }
+
+    /** True when some player could still make a flush on this board. */
+    public boolean isFlushPossible() {
+        return flushSuit >= 0;
+    }
+
+    /** Suit that can still make a flush on this board, or -1 if none can. */
+    public int getFlushSuit() {
+        return flushSuit;
+    }
+
+    /**
+     * Strength of the board plus two hole cards given as a mask. Allocation-free;
+     * the hole cards are not validated against the board.
+     */
+    public int evaluate(long holeCards) {
+        if (flushSuit >= 0 && flushSuitCount + Long.bitCount(holeCards & flushSuitCards) >= FLUSH_SIZE) {
+            return SevenCardLookup.flushStrength(SevenCardLookup.suitRanks(board | holeCards, flushSuit));
+        }
+        return rankStrength(holeCards);
+    }
+
+    /**
+     * Evaluates every player's hole cards against this board into {@code strengths}.
+     */
+    public void evaluateAll(long[] holeCards, int[] strengths) {
+        if (flushSuit < 0) {
+            // Rank-only: no player can make a flush
+            for (int i = 0; i < holeCards.length; i++) {
+                strengths[i] = rankStrength(holeCards[i]);
+            }
+        } else if (straightFlush != 0 && !holdsAny(holeCards, straightFlushBeater)) {
+            // Nobody can beat the board's straight flush, so everyone plays it
+            for (int i = 0; i < holeCards.length; i++) {
+                strengths[i] = straightFlush;
+            }
+            prunedEvaluations += holeCards.length;
+        } else {
+            for (int i = 0; i < holeCards.length; i++) {
+                strengths[i] = evaluate(holeCards[i]);
+            }
+        }
+    }
+
+    private static boolean holdsAny(long[] holeCards, long cards) {
+        for (long hand : holeCards) {
+            if ((hand & cards) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Evaluations {@link #evaluateAll} skipped because every player played the board. */
+    public long getPrunedEvaluations() {
+        return prunedEvaluations;
+    }
+
+    private int rankStrength(long holeCards) {
+        return SevenCardLookup.rankStrength(rankKey
+            + SevenCardLookup.rankKey(Long.numberOfTrailingZeros(holeCards))
+            + SevenCardLookup.rankKey(63 - Long.numberOfLeadingZeros(holeCards)));
+    }
+}
@@ -0,0 +1,211 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Compares many candidate hero hands against the same opponents on one shared
+ * stream of boards (common random numbers).
+ *
+ * <p>Each board is dealt once from the cards no opponent, board or dead card
+ * uses, and the opponents' best strength is evaluated once; every candidate
+ * that does not share a card with the board is then scored against it.
+ * Skipping the boards a candidate blocks leaves its remaining boards uniform
+ * over the runouts it can actually see, so its estimate is unbiased. Because
+ * the candidates face the same runouts, their estimates are strongly
+ * correlated and paired differences are far less noisy than the difference of
+ * independent runs; their standard errors come from batch means over
+ * {@link #BATCHES} consecutive blocks of boards.
+ */
+public class CandidateComparison {
+    /** Consecutive blocks of boards used to estimate paired-difference errors. */
+    public static final int BATCHES = 32;
+
+    private static final int BOARD_SIZE = 5;
+
+    private final long[] candidates;
+    private final long[] opponents;
+    private final long board;
+    private final long live;
+    private final int toDeal;
+
+    /**
+     * @param candidates {@link Card#toBits()} masks of the hero hands to compare
+     * @param opponents  masks of the opponents' hole cards
+     * @param board      known board cards
+     * @param dead       cards removed from the deck
+     */
+    public CandidateComparison(long[] candidates, long[] opponents, long board, long dead) {
+        if (opponents.length == 0) {
+            throw new IllegalArgumentException("At least one opponent is required");
+        }
+        long used = board | dead;
+        for (long opponent : opponents) {
+            used |= opponent;
+        }
+        for (long candidate : candidates) {
+            if ((candidate & used) != 0) {
+                throw new IllegalArgumentException("Candidate hand overlaps known cards");
+            }
+        }
+        this.candidates = candidates.clone();
+        this.opponents = opponents.clone();
+        this.board = board;
+        this.live = Deck.FULL_DECK_MASK & ~used;
+        this.toDeal = BOARD_SIZE - Long.bitCount(board);
+    }
+
+    /**
+     * Deals {@code boards} shared boards and scores every candidate on each one it does not block.
+     */
+    public Estimate run(int boards, RandomGenerator random) {
+        int count = candidates.length;
+        long[] hands = new long[count];
+        long[] wins = new long[count];
+        long[] splits = new long[count];
+        double[] equity = new double[count];
+        double[] equitySquared = new double[count];
+        long[][] batchHands = new long[BATCHES][count];
+        double[][] batchEquity = new double[BATCHES][count];
+        BoardState boardState = new BoardState();
+
+        for (int n = 0; n < boards; n++) {
+            long dealt = MaskDealer.deal(live, toDeal, random);
+            boardState.set(board | dealt);
+            int best = 0;
+            int tied = 0;
+            for (long opponent : opponents) {
+                int strength = boardState.evaluate(opponent);
+                if (strength > best) {
+                    best = strength;
+                    tied = 1;
+                } else if (strength == best) {
+                    tied++;
+                }
+            }
+            int batch = (int) ((long) n * BATCHES / boards);
+            for (int c = 0; c < count; c++) {
+                if ((candidates[c] & dealt) != 0) {
+                    continue;
+                }
+                int strength = boardState.evaluate(candidates[c]);
+                double share;
+                if (strength > best) {
+                    wins[c]++;
+                    share = 1;
+                } else if (strength == best) {
+                    splits[c]++;
+                    share = 1.0 / (tied + 1);
+                } else {
+                    share = 0;
+                }
+                hands[c]++;
+                equity[c] += share;
+                equitySquared[c] += share * share;
+                batchHands[batch][c]++;
+                batchEquity[batch][c] += share;
+            }
+        }
+        return new Estimate(boards, hands, wins, splits, equity, equitySquared, batchHands, batchEquity);
+    }
+
+    /**
+     * Per-candidate results and paired differences from one shared board stream.
+     */
+    public static final class Estimate {
+        private final long boards;
+        private final long[] hands;
+        private final long[] wins;
+        private final long[] splits;
+        private final double[] equity;
+        private final double[] equitySquared;
+        private final long[][] batchHands;
+        private final double[][] batchEquity;
+
+        Estimate(long boards, long[] hands, long[] wins, long[] splits, double[] equity,
+                 double[] equitySquared, long[][] batchHands, double[][] batchEquity) {
+            this.boards = boards;
+            this.hands = hands;
+            this.wins = wins;
+            this.splits = splits;
+            this.equity = equity;
+            this.equitySquared = equitySquared;
+            this.batchHands = batchHands;
+            this.batchEquity = batchEquity;
+        }
+
+        /** Boards dealt, including those some candidates blocked. */
+        public long getTotalBoards() {
+            return boards;
+        }
+
+        /** Boards the candidate was scored on. */
+        public long getTotalHands(int candidate) {
+            return hands[candidate];
+        }
+
+        public double getEquity(int candidate) {
+            return hands[candidate] > 0 ? equity[candidate] / hands[candidate] : 0;
+        }
+
+        public double getWinProbability(int candidate) {
+            return hands[candidate] > 0 ? (double) wins[candidate] / hands[candidate] : 0;
+        }
+
+        public double getSplitProbability(int candidate) {
+            return hands[candidate] > 0 ? (double) splits[candidate] / hands[candidate] : 0;
+        }
+
+        public double getEquityStandardError(int candidate) {
+            long n = hands[candidate];
+            if (n < 2) {
+                return 0;
+            }
+            double mean = equity[candidate] / n;
+            double variance = Math.max(0, equitySquared[candidate] / n - mean * mean) * n / (n - 1);
+            return Math.sqrt(variance / n);
+        }
+
+        /** Equity of candidate {@code a} minus equity of candidate {@code b}. */
+        public double getEquityDifference(int a, int b) {
+            return getEquity(a) - getEquity(b);
+        }
+
+        /**
+         * Standard error of {@link #getEquityDifference}, from the spread of the
+         * per-batch differences; it reflects the correlation the shared boards create.
+         */
+        public double getEquityDifferenceStandardError(int a, int b) {
+            double sum = 0;
+            double sumSquared = 0;
+            int batches = 0;
+            for (int k = 0; k < batchHands.length; k++) {
+                if (batchHands[k][a] == 0 || batchHands[k][b] == 0) {
+                    continue;
+                }
+                double difference = batchEquity[k][a] / batchHands[k][a] - batchEquity[k][b] / batchHands[k][b];
+                sum += difference;
+                sumSquared += difference * difference;
+                batches++;
+            }
+            if (batches < 2) {
+                return 0;
+            }
+            double mean = sum / batches;
+            double variance = Math.max(0, sumSquared / batches - mean * mean) * batches / (batches - 1);
+            return Math.sqrt(variance / batches);
+        }
+
+        /**
+         * Standard error the difference would have if the two candidates had
+         * been simulated independently with the same number of hands.
+         */
+        public double getIndependentDifferenceStandardError(int a, int b) {
+            double se = getEquityStandardError(a);
+            double other = getEquityStandardError(b);
+            return Math.sqrt(se * se + other * other);
+        }
+    }
+}
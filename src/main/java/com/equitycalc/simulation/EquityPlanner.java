@@ -0,0 +1,77 @@
+package com.equitycalc.simulation;
+
+/**
+ * Chooses between exact enumeration and Monte Carlo sampling for a scenario.
+ *
+ * <p>The work of an exact answer is the number of showdown evaluations it needs:
+ * remaining boards times the number of hole-card assignments (1 when every hand
+ * is known) times the number of players. Scenarios whose work fits the budget
+ * are enumerated; larger ones are sampled.
+ */
+public class EquityPlanner {
+    public enum Engine {
+        EXACT,
+        MONTE_CARLO
+    }
+
+    /**
+     * Default budget in hand evaluations; about a second of single-threaded
+     * lookups, and enough for every known-hands scenario of up to 10 players.
+     */
+    public static final long DEFAULT_EXACT_BUDGET = 25_000_000L;
+
+    private final long exactBudget;
+
+    public EquityPlanner() {
+        this(DEFAULT_EXACT_BUDGET);
+    }
+
+    public EquityPlanner(long exactBudget) {
+        if (exactBudget < 0) {
+            throw new IllegalArgumentException("Exact budget cannot be negative: " + exactBudget);
+        }
+        this.exactBudget = exactBudget;
+    }
+
+    public long getExactBudget() {
+        return exactBudget;
+    }
+
+    /**
+     * Hand evaluations needed to enumerate a scenario exactly, saturating at
+     * {@link Long#MAX_VALUE}.
+     *
+     * @param players          number of players
+     * @param liveCards        cards left in the deck after hole, board and dead cards
+     * @param boardCards       board cards already known (0, 3, 4 or 5)
+     * @param holeCombinations consistent hole-card assignments (1 for known hands)
+     */
+    public static long estimateExactWork(int players, int liveCards, int boardCards, long holeCombinations) {
+        long boards = ExactEnumerator.countBoards(liveCards, boardCards);
+        return saturatingMultiply(saturatingMultiply(boards, holeCombinations), players);
+    }
+
+    public Engine choose(int players, int liveCards, int boardCards, long holeCombinations) {
+        return estimateExactWork(players, liveCards, boardCards, holeCombinations) <= exactBudget
+            ? Engine.EXACT
+            : Engine.MONTE_CARLO;
+    }
+
+    /**
+     * Chooses the engine for known hole cards given as {@link com.equitycalc.model.Card#toBits()}
+     * masks, a partial board and dead cards.
+     */
+    public Engine choose(long[] holeCards, long board, long dead) {
+        long used = board | dead;
+        for (long hand : holeCards) {
+            used |= hand;
+        }
+        return choose(holeCards.length, 52 - Long.bitCount(used), Long.bitCount(board), 1);
+    }
+
+    private static long saturatingMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return high != 0 || low < 0 ? Long.MAX_VALUE : low;
+    }
+}
@@ -0,0 +1,385 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact equity by enumerating every remaining board for a set of known hands.
+ *
+ * <p>The live cards (deck minus hole cards, board and dead cards) are dealt in
+ * every combination needed to complete the board. The enumeration is split by
+ * the lowest dealt card into fork/join tasks, each accumulating its own
+ * {@link SimulationResult}, which are merged at the end. Every board is counted
+ * once, so {@link SimulationResult#getTotalHands()} is the number of boards.
+ *
+ * <p>With suit isomorphism enabled (the default), the enumerator first finds the
+ * suit permutations that map every player's hole cards, the board and the dead
+ * cards onto themselves. Such a permutation maps a board to one with identical
+ * showdown strengths, so only the numerically smallest board of each orbit is
+ * evaluated and it is counted once per distinct board in the orbit. The counts
+ * are identical to full enumeration. Images of the partial board under each
+ * permutation are kept per dealt card, so the canonical test is a few compares.
+ *
+ * <p>Boards are dealt depth-first, so consecutive boards share every card but
+ * the last dealt ones. The {@link SevenCardLookup} key sum (rank histogram and
+ * suit counts) of each partial board is kept per depth as well. A board's
+ * histograms therefore cost one addition, and {@link BoardState} finishes
+ * each player from two hole-card keys and one table load. Live cards are in
+ * rank order, so neighbouring boards often differ only in the suit of the
+ * last card. When neither board allows a flush, their rank histograms and
+ * therefore their showdowns are equal, and the previous winners are reused
+ * without evaluating. Showdowns are tallied per set of winners and folded
+ * into the result once per task.
+ */
+public class ExactEnumerator {
+    public static final int MIN_PLAYERS = 2;
+    public static final int MAX_PLAYERS = 10;
+    private static final int BOARD_SIZE = 5;
+    private static final int SUIT_COUNT = 4;
+    // All 24 permutations of the four suits, identity first
+    private static final int[][] SUIT_PERMUTATIONS = suitPermutations();
+
+    private final ForkJoinPool pool;
+    private final boolean suitIsomorphism;
+    private final LongAdder evaluatedBoards = new LongAdder();
+    private final LongAdder reusedBoards = new LongAdder();
+
+    public ExactEnumerator() {
+        this(ForkJoinPool.commonPool(), true);
+    }
+
+    public ExactEnumerator(ForkJoinPool pool) {
+        this(pool, true);
+    }
+
+    public ExactEnumerator(ForkJoinPool pool, boolean suitIsomorphism) {
+        this.pool = pool;
+        this.suitIsomorphism = suitIsomorphism;
+    }
+
+    /**
+     * Number of boards actually evaluated by this enumerator so far; lower than the
+     * boards counted in the results when suit isomorphism merges boards, and
+     * excluding boards whose winners were reused.
+     */
+    public long getEvaluatedBoards() {
+        return evaluatedBoards.sum();
+    }
+
+    /**
+     * Number of flush-free boards so far that took the winners of the previous
+     * board with the same ranks instead of being evaluated.
+     */
+    public long getReusedBoards() {
+        return reusedBoards.sum();
+    }
+
+    /**
+     * Number of boards an enumeration with these known cards would visit.
+     */
+    public static long countBoards(int liveCards, int boardCards) {
+        return binomial(liveCards, BOARD_SIZE - boardCards);
+    }
+
+    /**
+     * Enumerates all boards for the given hole cards ({@link Card#toBits()} masks of
+     * two cards each), partial board of 0, 3, 4 or 5 cards, and dead cards.
+     */
+    public SimulationResult enumerate(long[] holeCards, long board, long dead) {
+        validate(holeCards, board, dead);
+
+        long used = board | dead;
+        for (long hand : holeCards) {
+            used |= hand;
+        }
+        int[] live = liveCards(Deck.FULL_DECK_MASK & ~used);
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        int[][] symmetries = suitIsomorphism
+            ? cardPermutations(symmetryGroup(holeCards, board, dead))
+            : new int[0][];
+
+        Enumeration enumeration = new Enumeration(holeCards, live, board, toDeal, symmetries);
+        if (toDeal == 0) {
+            SimulationResult result = new SimulationResult(holeCards.length);
+            new BoardTask(enumeration, 0, 0).compute(result);
+            return result;
+        }
+        return pool.invoke(new BoardTask(enumeration, 0, live.length - toDeal + 1));
+    }
+
+    /**
+     * Convenience overload taking card lists; {@code board} and {@code dead} may be null.
+     */
+    public SimulationResult enumerate(List<List<Card>> holeCards, List<Card> board, List<Card> dead) {
+        long[] hands = new long[holeCards.size()];
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = Card.toBitMask(holeCards.get(i));
+        }
+        return enumerate(hands, Card.toBitMask(board), Card.toBitMask(dead));
+    }
+
+    private static void validate(long[] holeCards, long board, long dead) {
+        if (holeCards.length < MIN_PLAYERS || holeCards.length > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between "
+                + MIN_PLAYERS + " and " + MAX_PLAYERS);
+        }
+        int boardSize = Long.bitCount(board);
+        if (boardSize != 0 && boardSize != 3 && boardSize != 4 && boardSize != 5) {
+            throw new IllegalArgumentException("Board must contain 0, 3, 4, or 5 cards, found: " + boardSize);
+        }
+        long seen = board;
+        if ((seen & dead) != 0) {
+            throw new IllegalArgumentException("Dead cards overlap the board");
+        }
+        seen |= dead;
+        for (long hand : holeCards) {
+            if (Long.bitCount(hand) != 2) {
+                throw new IllegalArgumentException("Each player must have exactly 2 hole cards");
+            }
+            if ((seen & hand) != 0) {
+                throw new IllegalArgumentException("Duplicate card detected: " + Card.bitsToCards(seen & hand));
+            }
+            seen |= hand;
+        }
+        if (Long.bitCount(Deck.FULL_DECK_MASK & ~seen) < BOARD_SIZE - boardSize) {
+            throw new IllegalArgumentException("Not enough live cards to complete the board");
+        }
+    }
+
+    /**
+     * Suit permutations, other than the identity, that map every hole-card set,
+     * the board and the dead cards onto themselves.
+     */
+    static List<int[]> symmetryGroup(long[] holeCards, long board, long dead) {
+        List<int[]> group = new ArrayList<>();
+        for (int i = 1; i < SUIT_PERMUTATIONS.length; i++) {
+            int[] suits = SUIT_PERMUTATIONS[i];
+            boolean fixed = permute(board, suits) == board && permute(dead, suits) == dead;
+            for (int p = 0; fixed && p < holeCards.length; p++) {
+                fixed = permute(holeCards[p], suits) == holeCards[p];
+            }
+            if (fixed) {
+                group.add(suits);
+            }
+        }
+        return group;
+    }
+
+    private static long permute(long cards, int[] suits) {
+        long result = 0L;
+        for (; cards != 0; cards &= cards - 1) {
+            int card = Long.numberOfTrailingZeros(cards);
+            result |= 1L << (card - (card & 3) + suits[card & 3]);
+        }
+        return result;
+    }
+
+    // Card-to-card tables for each suit permutation
+    private static int[][] cardPermutations(List<int[]> group) {
+        int[][] tables = new int[group.size()][52];
+        for (int g = 0; g < tables.length; g++) {
+            int[] suits = group.get(g);
+            for (int card = 0; card < 52; card++) {
+                tables[g][card] = card - (card & 3) + suits[card & 3];
+            }
+        }
+        return tables;
+    }
+
+    private static int[][] suitPermutations() {
+        List<int[]> permutations = new ArrayList<>();
+        addPermutations(new int[SUIT_COUNT], 0, 0, permutations);
+        return permutations.toArray(new int[0][]);
+    }
+
+    private static void addPermutations(int[] suits, int position, int usedSuits, List<int[]> out) {
+        if (position == SUIT_COUNT) {
+            out.add(suits.clone());
+            return;
+        }
+        for (int suit = 0; suit < SUIT_COUNT; suit++) {
+            if ((usedSuits & (1 << suit)) == 0) {
+                suits[position] = suit;
+                addPermutations(suits, position + 1, usedSuits | 1 << suit, out);
+            }
+        }
+    }
+
+    private static int[] liveCards(long mask) {
+        int[] cards = new int[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; i++) {
+            cards[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return cards;
+    }
+
+    private static long binomial(int n, int k) {
+        if (k < 0 || k > n) return 0;
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    // Inputs shared by all tasks of one enumeration
+    private final class Enumeration {
+        final long[] holeCards;
+        final int[] live;
+        final long board;
+        final int toDeal;
+        // Card mapping of each non-identity symmetry
+        final int[][] symmetries;
+
+        Enumeration(long[] holeCards, int[] live, long board, int toDeal, int[][] symmetries) {
+            this.holeCards = holeCards;
+            this.live = live;
+            this.board = board;
+            this.toDeal = toDeal;
+            this.symmetries = symmetries;
+        }
+    }
+
+    // Covers all boards whose lowest dealt card is live[firstFrom .. firstTo); never serialized
+    @SuppressWarnings("serial")
+    private final class BoardTask extends RecursiveTask<SimulationResult> {
+        private final Enumeration enumeration;
+        private final int firstFrom;
+        private final int firstTo;
+        private int[] strengths;
+        // Weight of the boards won or split by each set of players, folded into the result at the end
+        private long[] outcomes;
+        // Rank key and winners of the last flush-free board; equal ranks without a flush give equal strengths
+        private int lastRankKey = -1;
+        private int lastWinners;
+        private final BoardState boardState = new BoardState();
+        // images[depth][g]: the board after depth dealt cards, mapped by symmetry g
+        private long[][] images;
+        // keys[depth]: SevenCardLookup key sum of the board after depth dealt cards
+        private long[] keys;
+        private long evaluated;
+        private long reused;
+
+        BoardTask(Enumeration enumeration, int firstFrom, int firstTo) {
+            this.enumeration = enumeration;
+            this.firstFrom = firstFrom;
+            this.firstTo = firstTo;
+        }
+
+        @Override
+        protected SimulationResult compute() {
+            int players = enumeration.holeCards.length;
+            if (firstTo - firstFrom > 1) {
+                List<BoardTask> tasks = new ArrayList<>(firstTo - firstFrom);
+                for (int first = firstFrom; first < firstTo; first++) {
+                    tasks.add(new BoardTask(enumeration, first, first + 1));
+                }
+                SimulationResult result = new SimulationResult(players);
+                for (BoardTask task : invokeAll(tasks)) {
+                    result.merge(task.join());
+                }
+                return result;
+            }
+
+            SimulationResult result = new SimulationResult(players);
+            compute(result);
+            return result;
+        }
+
+        void compute(SimulationResult result) {
+            strengths = new int[enumeration.holeCards.length];
+            outcomes = new long[1 << strengths.length];
+            images = new long[enumeration.toDeal + 1][enumeration.symmetries.length];
+            // The known board is fixed by every symmetry
+            Arrays.fill(images[0], enumeration.board);
+            keys = new long[enumeration.toDeal + 1];
+            keys[0] = SevenCardLookup.cardKeys(enumeration.board);
+            if (enumeration.toDeal == 0) {
+                evaluate(enumeration.board, 0, result);
+            } else {
+                deal(firstFrom, 0, enumeration.board, result, true);
+            }
+            for (int winners = 1; winners < outcomes.length; winners++) {
+                if (outcomes[winners] != 0) {
+                    result.recordWinners(winners, strengths.length, outcomes[winners]);
+                }
+            }
+            evaluatedBoards.add(evaluated);
+            reusedBoards.add(reused);
+        }
+
+        private void deal(int from, int depth, long cards, SimulationResult result, boolean firstCard) {
+            int[] live = enumeration.live;
+            int[][] symmetries = enumeration.symmetries;
+            int remaining = enumeration.toDeal - depth;
+            // The first card of this task is fixed; deeper cards range over the rest
+            int last = firstCard ? from : live.length - remaining;
+            for (int i = from; i <= last; i++) {
+                int card = live[i];
+                long[] image = images[depth];
+                long[] next = images[depth + 1];
+                for (int g = 0; g < symmetries.length; g++) {
+                    next[g] = image[g] | 1L << symmetries[g][card];
+                }
+                keys[depth + 1] = keys[depth] + SevenCardLookup.cardKey(card);
+                long dealt = cards | 1L << card;
+                if (remaining == 1) {
+                    evaluate(dealt, depth + 1, result);
+                } else {
+                    deal(i + 1, depth + 1, dealt, result, false);
+                }
+            }
+        }
+
+        private void evaluate(long fullBoard, int depth, SimulationResult result) {
+            // Only the smallest board of each orbit is evaluated, weighted by orbit size
+            long[] image = images[depth];
+            int stabilizer = 1;
+            for (long mapped : image) {
+                if (mapped < fullBoard) {
+                    return;
+                }
+                if (mapped == fullBoard) {
+                    stabilizer++;
+                }
+            }
+            long weight = (image.length + 1) / stabilizer;
+
+            boardState.set(fullBoard, keys[depth]);
+            int rankKey = (int) (keys[depth] >>> SevenCardLookup.RANK_KEY_SHIFT);
+            boolean flushFree = !boardState.isFlushPossible();
+            if (flushFree && rankKey == lastRankKey) {
+                // Usually the previous board with the last card in another suit
+                outcomes[lastWinners] += weight;
+                reused++;
+                return;
+            }
+
+            boardState.evaluateAll(enumeration.holeCards, strengths);
+            int best = 0;
+            int winners = 0;
+            for (int p = 0; p < strengths.length; p++) {
+                if (strengths[p] > best) {
+                    best = strengths[p];
+                    winners = 1 << p;
+                } else if (strengths[p] == best) {
+                    winners |= 1 << p;
+                }
+            }
+            if (flushFree) {
+                lastRankKey = rankKey;
+                lastWinners = winners;
+            }
+            outcomes[winners] += weight;
+            evaluated++;
+        }
+    }
+}
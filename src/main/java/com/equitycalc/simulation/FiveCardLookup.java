@@ -0,0 +1,71 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+
+/**
+ * Precomputed strengths of all 2,598,960 five-card hands, returning the same
+ * values as {@link BitHandEvaluator#evaluate(long)}.
+ *
+ * <p>The table is a flat {@code char[]} indexed by the combinatorial number of
+ * the hand ({@code C(c0,1) + C(c1,2) + ... + C(c4,5)} over the ascending card
+ * bits), so a lookup is five bit scans, five small loads and one table load:
+ * lock-free, allocation-free and of fixed size (about 5 MB).
+ */
+public class FiveCardLookup {
+    public static final int HAND_SIZE = 5;
+
+    /** Number of distinct five-card hands, C(52, 5). */
+    public static final int HAND_COUNT = 2598960;
+
+    // CHOOSE[card * 6 + k] = C(card, k)
+    private static final int[] CHOOSE = new int[52 * (HAND_SIZE + 1)];
+    private static final char[] STRENGTHS = new char[HAND_COUNT];
+
+    static {
+        for (int n = 0; n < 52; n++) {
+            CHOOSE[n * (HAND_SIZE + 1)] = 1;
+            for (int k = 1; k <= HAND_SIZE; k++) {
+                CHOOSE[n * (HAND_SIZE + 1) + k] = n == 0 ? 0
+                    : CHOOSE[(n - 1) * (HAND_SIZE + 1) + k - 1] + CHOOSE[(n - 1) * (HAND_SIZE + 1) + k];
+            }
+        }
+
+        // Ascending last card outermost enumerates hands in combinatorial-number order
+        int index = 0;
+        for (int c4 = 4; c4 < 52; c4++) {
+            long m4 = 1L << c4;
+            for (int c3 = 3; c3 < c4; c3++) {
+                long m3 = m4 | 1L << c3;
+                for (int c2 = 2; c2 < c3; c2++) {
+                    long m2 = m3 | 1L << c2;
+                    for (int c1 = 1; c1 < c2; c1++) {
+                        long m1 = m2 | 1L << c1;
+                        for (int c0 = 0; c0 < c1; c0++) {
+                            STRENGTHS[index++] = (char) BitHandEvaluator.evaluate(m1 | 1L << c0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates exactly five cards given as a {@link Card#toBits()} bit mask.
+     * Allocation-free; the mask is not validated.
+     */
+    public static int evaluate(long cards) {
+        return STRENGTHS[index(cards)];
+    }
+
+    /**
+     * Returns the combinatorial number of a five-card mask, in {@code [0, HAND_COUNT)}.
+     */
+    static int index(long cards) {
+        int index = 0;
+        for (int k = 1; k <= HAND_SIZE; k++) {
+            index += CHOOSE[Long.numberOfTrailingZeros(cards) * (HAND_SIZE + 1) + k];
+            cards &= cards - 1;
+        }
+        return index;
+    }
+}
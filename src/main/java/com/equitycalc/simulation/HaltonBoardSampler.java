@@ -0,0 +1,72 @@
+package com.equitycalc.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Quasi-random boards from a scrambled Halton sequence.
+ *
+ * <p>Point {@code n} of the sequence has one coordinate per dealt card, the
+ * radical inverse of {@code n} in that card's prime base. Card {@code k} is the
+ * {@code floor(u_k * remaining)}-th card still live, so the coordinates map to
+ * ordered draws without replacement. Each base gets a random digit permutation
+ * (zero kept fixed) and the sequence starts at a random index, so independent
+ * samplers give independent randomised estimates.
+ */
+public class HaltonBoardSampler implements BoardSampler {
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53};
+
+    /** Largest number of cards one board draw may deal. */
+    public static final int MAX_DIMENSIONS = PRIMES.length;
+
+    private final int[][] permutations = new int[PRIMES.length][];
+    private long index;
+
+    public HaltonBoardSampler(RandomGenerator random) {
+        for (int d = 0; d < PRIMES.length; d++) {
+            int base = PRIMES[d];
+            int[] permutation = new int[base];
+            for (int digit = 0; digit < base; digit++) {
+                permutation[digit] = digit;
+            }
+            for (int digit = base - 1; digit > 1; digit--) {
+                int other = 1 + random.nextInt(digit);
+                int swap = permutation[digit];
+                permutation[digit] = permutation[other];
+                permutation[other] = swap;
+            }
+            permutations[d] = permutation;
+        }
+        this.index = random.nextInt(1 << 20);
+    }
+
+    @Override
+    public long nextBoard(long live, int count) {
+        if (count > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("At most " + MAX_DIMENSIONS + " cards per draw");
+        }
+        index++;
+        long dealt = 0L;
+        int remaining = Long.bitCount(live);
+        for (int d = 0; d < count; d++) {
+            int n = (int) (radicalInverse(index, d) * remaining--);
+            long card = 1L << MaskDealer.selectNthSetBit(live, n);
+            live &= ~card;
+            dealt |= card;
+        }
+        return dealt;
+    }
+
+    // Scrambled radical inverse of i in the d-th prime base, in [0, 1)
+    double radicalInverse(long i, int d) {
+        int base = PRIMES[d];
+        int[] permutation = permutations[d];
+        double result = 0;
+        double scale = 1.0 / base;
+        while (i > 0) {
+            result += permutation[(int) (i % base)] * scale;
+            i /= base;
+            scale /= base;
+        }
+        return result;
+    }
+}
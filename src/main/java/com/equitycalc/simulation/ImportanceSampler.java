@@ -0,0 +1,93 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Monte Carlo with boards biased toward a set of focus cards, such as a
+ * player's outs or a suit.
+ *
+ * <p>Cards are drawn one at a time without replacement; each live focus card
+ * is {@code boost} times as likely as any other live card. A board's weight is
+ * the product over draws of uniform probability over proposal probability, so
+ * the weighted estimates in {@link WeightedResult} stay unbiased while rare
+ * runouts built from focus cards are sampled far more often.
+ */
+public class ImportanceSampler {
+    private static final int BOARD_SIZE = 5;
+    private static final long SUIT_CARDS = 0x1111111111111L;
+
+    private final long[] holeCards;
+    private final long board;
+    private final long live;
+    private final int toDeal;
+    private final long focus;
+    private final double boost;
+
+    /**
+     * @param holeCards  {@link Card#toBits()} masks of each player's two hole cards
+     * @param board      known board cards
+     * @param dead       cards removed from the deck
+     * @param focusCards cards to draw more often
+     * @param boost      relative draw weight of a focus card, at least 1
+     */
+    public ImportanceSampler(long[] holeCards, long board, long dead, long focusCards, double boost) {
+        if (!(boost >= 1)) {
+            throw new IllegalArgumentException("Boost must be at least 1: " + boost);
+        }
+        this.holeCards = holeCards.clone();
+        this.board = board;
+        long used = board | dead;
+        for (long hand : holeCards) {
+            used |= hand;
+        }
+        this.live = Deck.FULL_DECK_MASK & ~used;
+        this.toDeal = BOARD_SIZE - Long.bitCount(board);
+        this.focus = focusCards & live;
+        this.boost = boost;
+    }
+
+    /** All cards of one suit, for suit-focused proposals. */
+    public static long suitCards(Card.Suit suit) {
+        return SUIT_CARDS << suit.ordinal();
+    }
+
+    /** All four cards of one rank. */
+    public static long rankCards(Card.Rank rank) {
+        return 0xFL << (rank.ordinal() << Card.SUIT_BITS);
+    }
+
+    public WeightedResult run(int samples, RandomGenerator random) {
+        WeightedResult result = new WeightedResult(holeCards.length);
+        int[] strengths = new int[holeCards.length];
+        BoardState boardState = new BoardState();
+        for (int n = 0; n < samples; n++) {
+            long focusLeft = focus;
+            long otherLeft = live & ~focus;
+            long dealt = 0L;
+            double weight = 1;
+            for (int k = 0; k < toDeal; k++) {
+                int focusCount = Long.bitCount(focusLeft);
+                int otherCount = Long.bitCount(otherLeft);
+                double focusMass = boost * focusCount;
+                double total = focusMass + otherCount;
+                long card;
+                if (random.nextDouble() * total < focusMass) {
+                    card = 1L << MaskDealer.selectNthSetBit(focusLeft, random.nextInt(focusCount));
+                    focusLeft &= ~card;
+                    weight *= total / (boost * (focusCount + otherCount));
+                } else {
+                    card = 1L << MaskDealer.selectNthSetBit(otherLeft, random.nextInt(otherCount));
+                    otherLeft &= ~card;
+                    weight *= total / (focusCount + otherCount);
+                }
+                dealt |= card;
+            }
+            boardState.set(board | dealt).evaluateAll(holeCards, strengths);
+            result.record(strengths, weight);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Deck;
+import com.equitycalc.range.HandRange;
+
+/**
+ * Heads-up range equity that follows edits to either range without starting over.
+ *
+ * <p>The runouts are fixed when the instance is built: every runout of the
+ * board, or a given list such as sampled preflop runouts. The first totals
+ * come from one {@link RangeMatchup} sweep, which leaves each hero combo's
+ * villain weight beaten, tied and faced. An edit then needs one combo's counts
+ * against every opposing combo: the runouts on which it wins, ties and meets
+ * that combo without shared cards. Those rows come from a table of every live
+ * combo's strength per runout, built on the first edit, and are kept per combo
+ * so repeated edits of a combo only touch its row. Changing a hero combo's
+ * weight moves the totals by its own sums; changing a villain combo's weight
+ * moves every hero combo's sums by that combo's row. Either is
+ * {@code O(opposing combos)} once the row exists, against a full sweep of
+ * every runout for a recompute. Sums are the same as a {@link RangeMatchup}
+ * over the new ranges and the same runouts, up to floating-point rounding.
+ *
+ * <p>Instances are mutable and not thread-safe.
+ */
+public class IncrementalRangeMatchup {
+    private static final int COMBOS = HandRange.COMBOS;
+    // Smallest board whose runouts are enumerated: a flop has at most 1081
+    private static final int MIN_BOARD = 3;
+
+    private final long live;
+    private final long[] runouts;
+    private final double[] heroWeights = new double[COMBOS];
+    private final double[] villainWeights = new double[COMBOS];
+    // Per hero combo: villain weight beaten, tied and faced, summed over runouts
+    private final double[] wins = new double[COMBOS];
+    private final double[] ties = new double[COMBOS];
+    private final double[] matchups = new double[COMBOS];
+    private double totalWins;
+    private double totalTies;
+    private double totalMatchups;
+
+    // Strength of every combo per runout, 0 where it touches the runout or dead cards
+    private char[][] strengths;
+    // Per combo, built on demand: runouts on which it beats, ties and meets every other combo
+    private final int[][] rowWins = new int[COMBOS][];
+    private final int[][] rowTies = new int[COMBOS][];
+    private final int[][] rowMatchups = new int[COMBOS][];
+    private int rowsBuilt;
+
+    /**
+     * Tracks equity over every runout of a board of three cards or more.
+     * Earlier streets have millions of runouts, too many to table; pass
+     * sampled runouts to the other constructor instead.
+     *
+     * @throws IllegalArgumentException if the board has fewer than three cards
+     * @see RangeMatchup#RangeMatchup(HandRange, HandRange, long, long)
+     */
+    public IncrementalRangeMatchup(HandRange hero, HandRange villain, long board, long dead) {
+        this(new RangeMatchup(hero, villain, board, dead), hero, villain, board, dead, null);
+    }
+
+    /**
+     * Tracks equity over the given runouts, each a five-card board holding the
+     * known board and no dead cards.
+     */
+    public IncrementalRangeMatchup(HandRange hero, HandRange villain, long board, long dead, long[] runouts) {
+        this(new RangeMatchup(hero, villain, board, dead), hero, villain, board, dead, runouts.clone());
+    }
+
+    private IncrementalRangeMatchup(RangeMatchup matchup, HandRange hero, HandRange villain,
+                                    long board, long dead, long[] runouts) {
+        if (runouts == null && Long.bitCount(board) < MIN_BOARD) {
+            throw new IllegalArgumentException("Enumerating runouts needs a board of at least "
+                + MIN_BOARD + " cards");
+        }
+        this.live = Deck.FULL_DECK_MASK & ~board & ~dead;
+        this.runouts = runouts != null ? runouts : matchup.listRunouts();
+        RangeMatchup.Result result = matchup.run(this.runouts);
+        for (int combo = 0; combo < COMBOS; combo++) {
+            if ((HandRange.comboCards(combo) & ~live) == 0) {
+                heroWeights[combo] = hero.getWeight(combo);
+                villainWeights[combo] = villain.getWeight(combo);
+                wins[combo] = result.getWinWeight(combo);
+                ties[combo] = result.getTieWeight(combo);
+                matchups[combo] = result.getMatchupWeight(combo);
+                totalWins += heroWeights[combo] * wins[combo];
+                totalTies += heroWeights[combo] * ties[combo];
+                totalMatchups += heroWeights[combo] * matchups[combo];
+            }
+        }
+    }
+
+    /**
+     * Sets a hero combo's weight, 0 to remove it.
+     *
+     * @throws IllegalArgumentException if the combo touches the board or dead
+     *                                  cards, or the weight is outside {@code [0, 1]}
+     */
+    public void setHeroWeight(int combo, double weight) {
+        double old = heroWeights[checkEdit(combo, weight)];
+        if (weight == old) {
+            return;
+        }
+        if (old == 0) {
+            // Sums of combos outside the range are not maintained
+            int[] comboWins = rowWins(combo);
+            int[] comboTies = rowTies[combo];
+            int[] comboMatchups = rowMatchups[combo];
+            double w = 0;
+            double t = 0;
+            double m = 0;
+            for (int other = 0; other < COMBOS; other++) {
+                double villainWeight = villainWeights[other];
+                w += villainWeight * comboWins[other];
+                t += villainWeight * comboTies[other];
+                m += villainWeight * comboMatchups[other];
+            }
+            wins[combo] = w;
+            ties[combo] = t;
+            matchups[combo] = m;
+        }
+        double delta = weight - old;
+        totalWins += delta * wins[combo];
+        totalTies += delta * ties[combo];
+        totalMatchups += delta * matchups[combo];
+        heroWeights[combo] = weight;
+    }
+
+    /**
+     * Sets a villain combo's weight, 0 to remove it.
+     *
+     * @throws IllegalArgumentException if the combo touches the board or dead
+     *                                  cards, or the weight is outside {@code [0, 1]}
+     */
+    public void setVillainWeight(int combo, double weight) {
+        double delta = weight - villainWeights[checkEdit(combo, weight)];
+        if (delta == 0) {
+            return;
+        }
+        // The villain combo's losses are the hero combos' wins
+        int[] comboWins = rowWins(combo);
+        int[] comboTies = rowTies[combo];
+        int[] comboMatchups = rowMatchups[combo];
+        for (int hero = 0; hero < COMBOS; hero++) {
+            double heroWeight = heroWeights[hero];
+            if (heroWeight > 0) {
+                int faced = comboMatchups[hero];
+                double w = delta * (faced - comboWins[hero] - comboTies[hero]);
+                double t = delta * comboTies[hero];
+                double m = delta * faced;
+                wins[hero] += w;
+                ties[hero] += t;
+                matchups[hero] += m;
+                totalWins += heroWeight * w;
+                totalTies += heroWeight * t;
+                totalMatchups += heroWeight * m;
+            }
+        }
+        villainWeights[combo] = weight;
+    }
+
+    /** Edits the hero range into {@code range}, touching only combos whose weight changes. */
+    public void setHeroRange(HandRange range) {
+        for (int combo = 0; combo < COMBOS; combo++) {
+            if ((HandRange.comboCards(combo) & ~live) == 0 && heroWeights[combo] != range.getWeight(combo)) {
+                setHeroWeight(combo, range.getWeight(combo));
+            }
+        }
+    }
+
+    /** Edits the villain range into {@code range}, touching only combos whose weight changes. */
+    public void setVillainRange(HandRange range) {
+        for (int combo = 0; combo < COMBOS; combo++) {
+            if ((HandRange.comboCards(combo) & ~live) == 0 && villainWeights[combo] != range.getWeight(combo)) {
+                setVillainWeight(combo, range.getWeight(combo));
+            }
+        }
+    }
+
+    private int checkEdit(int combo, double weight) {
+        if (combo < 0 || combo >= COMBOS || (HandRange.comboCards(combo) & ~live) != 0) {
+            throw new IllegalArgumentException("Combo is not live: " + combo);
+        }
+        if (!(weight >= 0 && weight <= 1)) {
+            throw new IllegalArgumentException("Weight must be between 0 and 1: " + weight);
+        }
+        return combo;
+    }
+
+    private int[] rowWins(int combo) {
+        if (rowWins[combo] == null) {
+            buildRow(combo);
+        }
+        return rowWins[combo];
+    }
+
+    private void buildRow(int combo) {
+        if (strengths == null) {
+            buildStrengths();
+        }
+        int[] comboWins = new int[COMBOS];
+        int[] comboTies = new int[COMBOS];
+        int[] comboMatchups = new int[COMBOS];
+        for (char[] runoutStrengths : strengths) {
+            int strength = runoutStrengths[combo];
+            if (strength == 0) {
+                continue;
+            }
+            // Branch-free so the loop vectorises; dead combos have strength 0 and never tie
+            for (int other = 0; other < COMBOS; other++) {
+                int otherStrength = runoutStrengths[other];
+                comboWins[other] += otherStrength != 0 & otherStrength < strength ? 1 : 0;
+                comboTies[other] += otherStrength == strength ? 1 : 0;
+                comboMatchups[other] += otherStrength != 0 ? 1 : 0;
+            }
+        }
+        // Combos sharing a card, this one included, never meet it
+        long cards = HandRange.comboCards(combo);
+        for (int other = 0; other < COMBOS; other++) {
+            if ((HandRange.comboCards(other) & cards) != 0) {
+                comboWins[other] = 0;
+                comboTies[other] = 0;
+                comboMatchups[other] = 0;
+            }
+        }
+        rowWins[combo] = comboWins;
+        rowTies[combo] = comboTies;
+        rowMatchups[combo] = comboMatchups;
+        rowsBuilt++;
+    }
+
+    private void buildStrengths() {
+        strengths = new char[runouts.length][COMBOS];
+        BoardState boardState = new BoardState();
+        for (int r = 0; r < runouts.length; r++) {
+            long runout = runouts[r];
+            boardState.set(runout);
+            char[] runoutStrengths = strengths[r];
+            for (int combo = 0; combo < COMBOS; combo++) {
+                long cards = HandRange.comboCards(combo);
+                if ((cards & (runout | ~live)) == 0) {
+                    runoutStrengths[combo] = (char) boardState.evaluate(cards);
+                }
+            }
+        }
+    }
+
+    /** Runouts every sum is taken over. */
+    public int getRunouts() {
+        return runouts.length;
+    }
+
+    /** Combos whose counts against every other combo have been built so far. */
+    public int getRowsBuilt() {
+        return rowsBuilt;
+    }
+
+    /** Hero range equity: ties count half. */
+    public double getEquity() {
+        return (totalWins + totalTies / 2) / totalMatchups;
+    }
+
+    public double getWinProbability() {
+        return totalWins / totalMatchups;
+    }
+
+    public double getSplitProbability() {
+        return totalTies / totalMatchups;
+    }
+
+    /**
+     * Equity of one hero combo against the villain range, or NaN when the
+     * combo is outside the hero range or never meets a villain combo.
+     */
+    public double getEquity(int combo) {
+        if (heroWeights[combo] == 0 || matchups[combo] == 0) {
+            return Double.NaN;
+        }
+        return (wins[combo] + ties[combo] / 2) / matchups[combo];
+    }
+}
@@ -1,6 +1,7 @@
 package com.equitycalc.simulation;
 
 import com.equitycalc.model.*;
+import com.equitycalc.range.HandRange;
 import com.equitycalc.util.ProgressTracker;
 
 import java.io.*;
@@ -9,19 +10,55 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 public class MonteCarloSim {
-    private static final int MAX_PLAYERS = 6;
+    private static final int MAX_PLAYERS = ExactEnumerator.MAX_PLAYERS;
     private static final int SIMULATION_BATCH_SIZE = 1000;
+    private static final int DEFAULT_SIMULATIONS = 1000000;
     
-    private final Deck deck;
+    private final SplittableRandom random;
+    private final BoardSampler boardSampler;
+    private final ParallelSimulator parallelSimulator = new ParallelSimulator();
+    private final BoardState boardState = new BoardState();
     private final int numSimulations;
     private PokerHandLookup lookupTable;
     private static final String DEFAULT_LOOKUP_PATH = "resources/poker_lookup.dat";
     
     public MonteCarloSim() {
-        this.numSimulations = 1000000;
-        this.deck = new Deck();
+        this(DEFAULT_SIMULATIONS);
+    }
+    
+    /**
+     * @param numSimulations number of hands per run, or the cap when a
+     *                       {@link PrecisionTarget} stops the run earlier
+     */
+    public MonteCarloSim(int numSimulations) {
+        this(numSimulations, null);
+    }
+    
+    /**
+     * @param boardSampler source of boards for {@link #runSimulation}, e.g. a
+     *                     {@link HaltonBoardSampler}; null for pseudo-random boards
+     */
+    public MonteCarloSim(int numSimulations, BoardSampler boardSampler) {
+        if (numSimulations <= 0) {
+            throw new IllegalArgumentException("Number of simulations must be positive");
+        }
+        this.numSimulations = numSimulations;
+        this.random = new SplittableRandom();
+        this.boardSampler = boardSampler != null ? boardSampler : new RandomBoardSampler(random);
         this.lookupTable = new PokerHandLookup(numSimulations);
     }
+    
+    public int getNumSimulations() {
+        return numSimulations;
+    }
+
+    /**
+     * Player evaluations {@link #runSimulation} skipped because nobody could
+     * beat a straight flush on the board (see {@link BoardState#evaluateAll}).
+     */
+    public long getPrunedEvaluations() {
+        return boardState.getPrunedEvaluations();
+    }
 
     public Set<String> getSimulatedHandKeys() {
         return lookupTable.getAllKeys();
@@ -73,7 +110,17 @@ public class MonteCarloSim {
         return lookupTable.getResult(key);
     }
     
-    public void runSimulation(List<Player> players) throws InterruptedException, ExecutionException {
+    public SimulationResult runSimulation(List<Player> players) throws InterruptedException, ExecutionException {
+        return runSimulation(players, null);
+    }
+    
+    /**
+     * Runs up to {@code numSimulations} hands, stopping at the end of the first
+     * batch where {@code target} is met. A null target runs every hand. The
+     * result carries the hand count and per-player confidence intervals.
+     */
+    public SimulationResult runSimulation(List<Player> players, PrecisionTarget target)
+            throws InterruptedException, ExecutionException {
         long startTime = System.nanoTime();
         
         if (players.size() > MAX_PLAYERS) {
@@ -86,22 +133,31 @@ public class MonteCarloSim {
         String heroHandKey = generateLookupKey(players.subList(0, 1));
         progress.setCurrentHand(heroHandKey);
         
+        long[] holeCards = new long[players.size()];
+        long liveCards = Deck.FULL_DECK_MASK;
+        for (int i = 0; i < holeCards.length; i++) {
+            holeCards[i] = Card.toBitMask(players.get(i).getHoleCards());
+            liveCards &= ~holeCards[i];
+        }
+        int[] strengths = new int[holeCards.length];
+        
+        // Timed once per run: per-hand timing would cost more than the hand
+        long handsStartTime = System.nanoTime();
         for (int i = 0; i < numSimulations; i++) {
-            long batchStartTime = System.nanoTime();
             if (i % SIMULATION_BATCH_SIZE == 0) {
-                deck.cards = new ArrayList<>(new Deck().cards);
-                PerformanceLogger.logOperation("DeckReset", batchStartTime);
-                
+                // Stop as soon as every player's interval is narrow enough
+                if (target != null && target.isMet(result)) {
+                    break;
+                }
                 // Update progress every batch
                 progress.update(i, 
                     result.getWinProbability(0), 
                     result.getSplitProbability(0));
             }
             
-            long handStartTime = System.nanoTime();
-            simulateOneHand(players, result);
-            PerformanceLogger.logOperation("SimulateHand", handStartTime);
+            simulateOneHand(holeCards, liveCards, strengths, result);
         }
+        PerformanceLogger.logOperation("SimulateHands", handsStartTime);
         
         progress.complete();
         
@@ -122,97 +178,188 @@ public class MonteCarloSim {
         PerformanceLogger.logOperation("LookupTableAdd", lookupTime);
         
         PerformanceLogger.logOperation("FullSimulation", startTime);
+        return result;
     }
-    
-    // Modify simulateOneHand method:
-    private void simulateOneHand(List<Player> players, SimulationResult result) throws InterruptedException, ExecutionException {
-        long deckPrepTime = System.nanoTime();
-        deck.cards = new ArrayList<>(new Deck().cards);
-        
-        // Remove hole cards from deck
-        Set<Card> usedCards = new HashSet<>();
-        for (Player player : players) {
-            usedCards.addAll(player.getHoleCards());
+
+    /**
+     * Runs {@code numSimulations} hands across the common pool in fixed-size
+     * chunks (see {@link ParallelSimulator}). The result depends only on
+     * {@code seed}, not on the number of threads or their scheduling. A
+     * non-null {@code target} stops the run after the first round of chunks
+     * that meets it.
+     */
+    public SimulationResult runParallelSimulation(List<Player> players, long seed, PrecisionTarget target) {
+        long startTime = System.nanoTime();
+
+        if (players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
         }
-        deck.cards.removeAll(usedCards);
-        PerformanceLogger.logOperation("DeckPreparation", deckPrepTime);
-        
-        long shuffleTime = System.nanoTime();
-        deck.shuffle();
-        PerformanceLogger.logOperation("DeckShuffle", shuffleTime);
-        
-        long dealTime = System.nanoTime();
-        List<Card> communityCards = deck.dealCards(5);
-        PerformanceLogger.logOperation("DealCommunityCards", dealTime);
-        
-        long handCreateTime = System.nanoTime();
-        List<PokerHand> hands = new ArrayList<>();
-        for (Player player : players) {
-            PokerHand hand = new PokerHand();
-            for (Card card : player.getHoleCards()) {
-                hand.addCard(card);
-            }
-            for (Card card : communityCards) {
-                hand.addCard(card);
-            }
-            
-            if (hand.getCardCount() != 7) {
-                throw new IllegalStateException(
-                    String.format("Invalid hand size: %d cards", hand.getCardCount())
-                );
-            }
-            hands.add(hand);
+
+        long[] holeCards = new long[players.size()];
+        for (int i = 0; i < holeCards.length; i++) {
+            holeCards[i] = Card.toBitMask(players.get(i).getHoleCards());
+        }
+        SimulationResult result = parallelSimulator.run(holeCards, 0L, 0L, numSimulations, seed, target);
+
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            player.setWinProbability(result.getWinProbability(i));
+            player.setLossProbability(result.getLossProbability(i));
+            player.setSplitProbability(result.getSplitProbability(i));
+        }
+        lookupTable.addResult(generateLookupKey(players), result);
+
+        PerformanceLogger.logOperation("ParallelSimulation", startTime);
+        return result;
+    }
+
+    /**
+     * Runs {@code numSimulations} hands with boards stratified by texture
+     * (see {@link StratifiedSampler}) and sets each player's probabilities
+     * from the weighted estimate.
+     */
+    public StratifiedSampler.Estimate runStratifiedSimulation(List<Player> players,
+                                                             StratifiedSampler.Allocation allocation) {
+        if (players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
+        }
+        long startTime = System.nanoTime();
+        long[] holeCards = new long[players.size()];
+        for (int i = 0; i < holeCards.length; i++) {
+            holeCards[i] = Card.toBitMask(players.get(i).getHoleCards());
         }
-        PerformanceLogger.logOperation("HandCreation", handCreateTime);
         
-        long evalTime = System.nanoTime();
-        evaluateHandsAndUpdateResults(hands, result);
-        PerformanceLogger.logOperation("HandEvaluation", evalTime);
+        StratifiedSampler sampler = new StratifiedSampler(holeCards, 0L, 0L);
+        StratifiedSampler.Estimate estimate = sampler.run(numSimulations, allocation, random);
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            player.setWinProbability(estimate.getWinProbability(i));
+            player.setLossProbability(estimate.getLossProbability(i));
+            player.setSplitProbability(estimate.getSplitProbability(i));
+        }
+        PerformanceLogger.logOperation("StratifiedSimulation", startTime);
+        return estimate;
     }
     
-    // Modify evaluateHandsAndUpdateResults method:
-    private void evaluateHandsAndUpdateResults(List<PokerHand> hands, SimulationResult result) throws InterruptedException, ExecutionException {
-        long rankingTime = System.nanoTime();
-        List<HandRanking> rankings = new ArrayList<>();
-        
-        for (PokerHand hand : hands) {
-            rankings.add(BitHandEvaluator.evaluateHand(hand));
+    /**
+     * Runs {@code numSimulations} preflop hands with a random-hand control
+     * variate (see {@link ControlVariateEstimator}). For diagnostics only: the
+     * control costs more than it saves, so this is slower for a given
+     * precision than {@link #runParallelSimulation}, about half the speed of
+     * plain sampling heads-up. The estimate reports each player's corrected
+     * equity and the speedup over plain sampling, net of the control's cost.
+     */
+    public ControlVariateEstimator.Estimate runControlVariateSimulation(List<Player> players) {
+        if (players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
         }
-        PerformanceLogger.logOperation("HandRanking", rankingTime);
-        
-        long compareTime = System.nanoTime();
-        HandRanking bestRanking = Collections.max(rankings);
-        List<Integer> winners = new ArrayList<>();
-        
-        for (int i = 0; i < rankings.size(); i++) {
-            if (rankings.get(i).compareTo(bestRanking) == 0) {
-                winners.add(i);
-            }
+        long startTime = System.nanoTime();
+        long[] holeCards = new long[players.size()];
+        for (int i = 0; i < holeCards.length; i++) {
+            holeCards[i] = Card.toBitMask(players.get(i).getHoleCards());
         }
-        PerformanceLogger.logOperation("WinnerDetermination", compareTime);
-        
-        long statsTime = System.nanoTime();
-        result.incrementTotalHands();
         
-        if (winners.size() == 1) {
-            int winner = winners.get(0);
-            result.incrementWin(winner);
-            for (int i = 0; i < rankings.size(); i++) {
-                if (i != winner) {
-                    result.incrementLoss(i);
-                }
-            }
-        } else {
-            for (int winner : winners) {
-                result.incrementSplit(winner);
-            }
-            for (int i = 0; i < rankings.size(); i++) {
-                if (!winners.contains(i)) {
-                    result.incrementLoss(i);
-                }
-            }
+        ControlVariateEstimator estimator = new ControlVariateEstimator(holeCards, 0L);
+        ControlVariateEstimator.Estimate estimate = estimator.run(numSimulations, random);
+        PerformanceLogger.logOperation("ControlVariateSimulation", startTime);
+        return estimate;
+    }
+
+    /**
+     * Runs {@code numSimulations} hands on the given board, drawing the focus
+     * cards {@code boost} times as often and reweighting (see
+     * {@link ImportanceSampler}). Suited to rare runouts, such as how often a
+     * backdoor draw gets there.
+     */
+    public WeightedResult runImportanceSimulation(List<Player> players, List<Card> board,
+                                                  List<Card> focusCards, double boost) {
+        if (players.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
+        }
+        long startTime = System.nanoTime();
+        long[] holeCards = new long[players.size()];
+        for (int i = 0; i < holeCards.length; i++) {
+            holeCards[i] = Card.toBitMask(players.get(i).getHoleCards());
         }
-        PerformanceLogger.logOperation("StatsUpdate", statsTime);
+
+        ImportanceSampler sampler = new ImportanceSampler(holeCards, Card.toBitMask(board), 0L,
+            Card.toBitMask(focusCards), boost);
+        WeightedResult result = sampler.run(numSimulations, random);
+        PerformanceLogger.logOperation("ImportanceSimulation", startTime);
+        return result;
+    }
+
+    /**
+     * Scores each candidate hero hand against the same opponents on one shared
+     * stream of {@code numSimulations} boards (see {@link CandidateComparison}),
+     * so differences between candidates are paired rather than independent.
+     */
+    public CandidateComparison.Estimate runCandidateComparison(List<List<Card>> candidates,
+                                                               List<Player> opponents) {
+        if (opponents.size() + 1 > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
+        }
+        long startTime = System.nanoTime();
+        long[] candidateCards = new long[candidates.size()];
+        for (int c = 0; c < candidateCards.length; c++) {
+            candidateCards[c] = Card.toBitMask(candidates.get(c));
+        }
+        long[] opponentCards = new long[opponents.size()];
+        for (int i = 0; i < opponentCards.length; i++) {
+            opponentCards[i] = Card.toBitMask(opponents.get(i).getHoleCards());
+        }
+
+        CandidateComparison comparison = new CandidateComparison(candidateCards, opponentCards, 0L, 0L);
+        CandidateComparison.Estimate estimate = comparison.run(numSimulations, random);
+        PerformanceLogger.logOperation("CandidateComparison", startTime);
+        return estimate;
+    }
+
+    /**
+     * Runs {@code numSimulations} hands for players holding weighted ranges on
+     * the given board (see {@link RangeSimulator}); each hand deals every player
+     * a combo from their range without shared cards. Standard errors come from
+     * batch means, since consecutive deals are correlated.
+     */
+    public BatchMeansResult runRangeSimulation(List<HandRange> ranges, List<Card> board) {
+        if (ranges.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Maximum " + MAX_PLAYERS + " players allowed");
+        }
+        long startTime = System.nanoTime();
+        RangeSimulator simulator = new RangeSimulator(ranges, Card.toBitMask(board), 0L);
+        BatchMeansResult result = simulator.run(numSimulations, random);
+        PerformanceLogger.logOperation("RangeSimulation", startTime);
+        return result;
+    }
+
+    /**
+     * Heads-up equity of a hero range against a villain range on the given
+     * board, per hero combo and per hand class as well as overall (see
+     * {@link RangeMatchup}). Every runout is enumerated when there are at most
+     * {@code maxRunouts}, which covers any flop; otherwise, as preflop, that
+     * many runouts are sampled.
+     */
+    public RangeMatchup.Result runRangeMatchup(HandRange hero, HandRange villain, List<Card> board,
+                                               int maxRunouts) {
+        long startTime = System.nanoTime();
+        RangeMatchup matchup = new RangeMatchup(hero, villain, Card.toBitMask(board), 0L);
+        RangeMatchup.Result result = matchup.countRunouts() <= maxRunouts
+            ? matchup.enumerate()
+            : matchup.sample(maxRunouts, random);
+        PerformanceLogger.logOperation("RangeMatchup", startTime);
+        return result;
+    }
+
+    private void simulateOneHand(long[] holeCards, long liveCards, int[] strengths, SimulationResult result) {
+        long board = boardSampler.nextBoard(liveCards, 5);
+        evaluateHandsAndUpdateResults(holeCards, board, strengths, result);
+    }
+    
+    // The board is prepared once and every player finished from their hole cards;
+    // winners and ties are resolved inside recordShowdown without allocating
+    private void evaluateHandsAndUpdateResults(long[] holeCards, long board, int[] strengths, SimulationResult result) {
+        boardState.set(board).evaluateAll(holeCards, strengths);
+        result.recordShowdown(strengths, holeCards.length, 1);
     }
     
 }
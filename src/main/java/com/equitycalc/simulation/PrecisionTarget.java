@@ -0,0 +1,89 @@
+package com.equitycalc.simulation;
+
+/**
+ * Stopping rule for Monte Carlo runs: stop once every player's equity is known
+ * to within {@code ±halfWidth} at the given confidence level.
+ *
+ * <p>Intervals use the normal approximation over per-hand equities, so the rule
+ * is only checked after {@link #MIN_HANDS} hands.
+ */
+public final class PrecisionTarget {
+    /** Hands sampled before the interval is trusted. */
+    public static final int MIN_HANDS = 10_000;
+
+    private final double halfWidth;
+    private final double confidence;
+    private final double z;
+
+    /**
+     * @param halfWidth  target interval half-width in equity, e.g. {@code 0.001} for ±0.1%
+     * @param confidence confidence level in (0, 1), e.g. {@code 0.95}
+     */
+    public PrecisionTarget(double halfWidth, double confidence) {
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("Half-width must be positive: " + halfWidth);
+        }
+        this.halfWidth = halfWidth;
+        this.confidence = confidence;
+        this.z = zScore(confidence);
+    }
+
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * True when every player's interval is at most the target half-width.
+     */
+    public boolean isMet(SimulationResult result) {
+        if (result.getTotalHands() < MIN_HANDS) {
+            return false;
+        }
+        for (int i = 0; i < result.getNumPlayers(); i++) {
+            if (z * result.getEquityStandardError(i) > halfWidth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Two-sided standard normal critical value for a confidence level, e.g. 1.96 for 0.95.
+     */
+    public static double zScore(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Confidence must be between 0 and 1: " + confidence);
+        }
+        return inverseNormal(0.5 + confidence / 2);
+    }
+
+    // Acklam's rational approximation of the standard normal quantile (relative error < 1.2e-9)
+    private static double inverseNormal(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double low = 0.02425;
+
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -inverseNormal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+            / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,65 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.range.HandRange;
+
+/**
+ * Exact preflop equity of every starting-hand class against one random hand,
+ * ties counting half, with no other cards known.
+ *
+ * <p>Generated by a {@link RangeMatchup} enumeration of every two-card hand
+ * against every other over all 2,598,960 boards, which takes about three
+ * minutes; equity against a random hand depends only on the hand class.
+ */
+final class PreflopEquities {
+    // Indexed as HandRange.handClass: 13x13 grid with aces first, suited above the diagonal
+    private static final double[] VS_RANDOM_HAND = {
+        // A row: AA to A2s
+        0.8520371330, 0.6704463231, 0.6620886240, 0.6539267903, 0.6460238679, 0.6278121392, 0.6194381064,
+        0.6098395855, 0.5990582804, 0.5992292562, 0.5903363598, 0.5822032060, 0.5737889786,
+        // K row: AKo to K2s
+        0.6532007179, 0.8239567979, 0.6340040329, 0.6256734013, 0.6178855817, 0.5998847551, 0.5831234993,
+        0.5753773751, 0.5664073552, 0.5579291764, 0.5488463657, 0.5405497646, 0.5321172833,
+        // Q row: AQo to Q2s
+        0.6443183937, 0.6145580005, 0.7992516406, 0.6025920514, 0.5946755931, 0.5766432172, 0.5601773298,
+        0.5430226320, 0.5361256644, 0.5276941089, 0.5185530204, 0.5101924649, 0.5016903526,
+        // J row: AJo to J2s
+        0.6356325791, 0.6056868516, 0.5813468968, 0.7746947290, 0.5752785711, 0.5566247055, 0.5401564418,
+        0.5232478119, 0.5060590714, 0.4998684951, 0.4907045340, 0.4823162402, 0.4737815241,
+        // T row: ATo to T2s
+        0.6272165464, 0.5973891514, 0.5729078260, 0.5524770308, 0.7501177995, 0.5402752866, 0.5233437072,
+        0.5063903754, 0.4894067568, 0.4721625897, 0.4653049361, 0.4569251202, 0.4483948273,
+        // 9 row: A9o to 92s
+        0.6077280639, 0.5781192466, 0.5536043492, 0.5325119688, 0.5153167240, 0.7205725195, 0.5080075539,
+        0.4911773110, 0.4742829077, 0.4572187456, 0.4386197082, 0.4326425779, 0.4241517187,
+        // 8 row: A8o to 82s
+        0.5987260509, 0.5602017256, 0.5359979207, 0.5149016301, 0.4972127367, 0.4809703277, 0.6916303547,
+        0.4793634024, 0.4624326927, 0.4454499270, 0.4270162730, 0.4087350410, 0.4027163444,
+        // 7 row: A7o to 72s
+        0.5884119542, 0.5518735017, 0.5176566594, 0.4968193360, 0.4790813552, 0.4629780641, 0.4505081226,
+        0.6623602279, 0.4537176664, 0.4367553663, 0.4184931188, 0.4003593588, 0.3815589347,
+        // 6 row: A6o to 62s
+        0.5768245230, 0.5422327894, 0.5102405230, 0.4784427305, 0.4609200328, 0.4449134526, 0.4324090186,
+        0.4232274688, 0.6328474822, 0.4313338622, 0.4133331903, 0.3953355994, 0.3766896411,
+        // 5 row: A5o to 52s
+        0.5769653436, 0.5331397283, 0.5012008279, 0.4718088823, 0.4425094955, 0.4266914281, 0.4142752598,
+        0.4051196886, 0.3994430230, 0.6032492051, 0.4145342037, 0.3969296240, 0.3784932799,
+        // 4 row: A4o to 42s
+        0.5672967763, 0.5232747211, 0.4912768410, 0.4618638453, 0.4350410801, 0.4067105352, 0.3944679147,
+        0.3854982784, 0.3801048824, 0.3815528708, 0.5702282119, 0.3864194838, 0.3682901472,
+        // 3 row: A3o to 32s
+        0.5584460234, 0.5142568964, 0.4821943603, 0.4527554489, 0.4259455085, 0.4001951434, 0.3748381260,
+        0.3660225699, 0.3607763096, 0.3626477112, 0.3514589339, 0.5369307639, 0.3598443060,
+        // 2 row: A2o to 22
+        0.5492855868, 0.5050872378, 0.4729543688, 0.4434846761, 0.4166835059, 0.3909793629, 0.3682767410,
+        0.3458364732, 0.3407513834, 0.3428464550, 0.3319975013, 0.3230322813, 0.5033401908
+    };
+
+    private PreflopEquities() {
+    }
+
+    /** Equity of two hole cards, as a {@link Card#toBits()} mask, against a random hand. */
+    static double vsRandomHand(long holeCards) {
+        return VS_RANDOM_HAND[HandRange.handClass(HandRange.comboIndex(holeCards))];
+    }
+}
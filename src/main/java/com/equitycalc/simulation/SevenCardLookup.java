@@ -0,0 +1,249 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed exact 7-card evaluator returning the same strengths as
+ * {@link BitHandEvaluator#evaluate(long)}.
+ *
+ * <p>Every card has a 64-bit key: a rank key in the upper bits and a 4-bit
+ * count in the nibble of its suit. The seven keys of a hand are summed. The
+ * suit nibbles then detect a flush directly, and the flush suit's 13 rank bits
+ * index {@link #FLUSH_TABLE}. Otherwise the rank key sum, which is unique for
+ * each of the 49,205 seven-card rank multisets, goes through a hash-and-displace
+ * perfect hash into {@link #RANK_TABLE}. A hand therefore costs seven key
+ * loads plus two table loads.
+ */
+public class SevenCardLookup {
+    public static final int HAND_SIZE = 7;
+
+    // Rank keys whose sums are distinct for every multiset of 7 ranks with at most 4 of each
+    private static final int[] RANK_KEYS = {
+        0, 1, 5, 22, 98, 453, 2031, 8698, 22854, 83661, 262349, 636345, 1479181
+    };
+    static final int SUIT_SHIFT = 4;
+    static final int RANK_KEY_SHIFT = 16;
+    // Adding 3 to each suit count sets the nibble's top bit exactly when the count is 5 or more
+    private static final int FLUSH_CHECK_ADD = 0x3333;
+    private static final int FLUSH_CHECK_MASK = 0x8888;
+
+    // Perfect hash of the rank key sum: 2^14 buckets of about three keys into 2^16 slots
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int BUCKET_BITS = 14;
+    private static final int RANK_BUCKETS = 1 << BUCKET_BITS;
+    private static final int RANK_SLOTS = 1 << 16;
+
+    /** Number of distinct 7-card rank multisets. */
+    public static final int RANK_MULTISETS = 49205;
+
+    private static final long[] CARD_KEYS = new long[52];
+    private static final int[] RANK_CARD_KEYS = new int[52];
+    // Key sums of every byte of a card mask, 256 entries per byte position
+    private static final long[] BYTE_KEYS = new long[7 * 256];
+    private static final char[] FLUSH_TABLE = new char[1 << 13];
+    private static final char[] DISPLACEMENTS;
+    private static final char[] RANK_TABLE = new char[RANK_SLOTS];
+
+    static {
+        for (int bit = 0; bit < 52; bit++) {
+            int rank = bit >>> Card.SUIT_BITS;
+            int suit = bit & 3;
+            CARD_KEYS[bit] = ((long) RANK_KEYS[rank] << RANK_KEY_SHIFT) | (1L << (suit * SUIT_SHIFT));
+            RANK_CARD_KEYS[bit] = RANK_KEYS[rank];
+        }
+        for (int position = 0; position < 7; position++) {
+            for (int b = 0; b < 256; b++) {
+                long key = 0L;
+                for (int bit = 0; bit < 8; bit++) {
+                    int card = position * 8 + bit;
+                    if ((b & (1 << bit)) != 0 && card < 52) {
+                        key += CARD_KEYS[card];
+                    }
+                }
+                BYTE_KEYS[position * 256 + b] = key;
+            }
+        }
+
+        for (int ranks = 0; ranks < FLUSH_TABLE.length; ranks++) {
+            if (Integer.bitCount(ranks) >= 5) {
+                FLUSH_TABLE[ranks] = (char) BitHandEvaluator.evaluateSuits(ranks, 0, 0, 0);
+            }
+        }
+
+        int[] keys = new int[RANK_MULTISETS];
+        char[] strengths = new char[RANK_MULTISETS];
+        int count = collectRankMultisets(0, HAND_SIZE, 0, 0L, 0, keys, strengths, 0);
+        if (count != RANK_MULTISETS) {
+            throw new IllegalStateException("Expected " + RANK_MULTISETS + " rank multisets, found " + count);
+        }
+
+        DISPLACEMENTS = buildDisplacements(keys);
+        for (int i = 0; i < keys.length; i++) {
+            RANK_TABLE[rankSlot(keys[i])] = strengths[i];
+        }
+    }
+
+    // Enumerates every multiset of 7 ranks with at most 4 of each, storing its rank key and
+    // strength. Cards are dealt round-robin over the suits so that no suit reaches five.
+    private static int collectRankMultisets(int rank, int remaining, int key, long hand, int suit,
+                                            int[] keys, char[] strengths, int count) {
+        if (remaining == 0) {
+            keys[count] = key;
+            strengths[count] = (char) BitHandEvaluator.evaluate(hand);
+            return count + 1;
+        }
+        if (rank == RANK_KEYS.length) {
+            return count;
+        }
+        for (int n = 0; n <= Math.min(4, remaining); n++) {
+            count = collectRankMultisets(rank + 1, remaining - n, key, hand, suit, keys, strengths, count);
+            key += RANK_KEYS[rank];
+            hand |= 1L << ((rank << Card.SUIT_BITS) | suit);
+            suit = (suit + 1) & 3;
+        }
+        return count;
+    }
+
+    // Hash-and-displace: buckets are placed largest first, each with the smallest
+    // displacement that sends all of its keys to distinct free slots
+    private static char[] buildDisplacements(int[] keys) {
+        int[] bucketSizes = new int[RANK_BUCKETS];
+        for (int key : keys) {
+            bucketSizes[bucket(key)]++;
+        }
+        int[] bucketStart = new int[RANK_BUCKETS + 1];
+        for (int b = 0; b < RANK_BUCKETS; b++) {
+            bucketStart[b + 1] = bucketStart[b] + bucketSizes[b];
+        }
+        int[] bucketKeys = new int[keys.length];
+        int[] fill = Arrays.copyOf(bucketStart, RANK_BUCKETS);
+        for (int key : keys) {
+            bucketKeys[fill[bucket(key)]++] = key;
+        }
+
+        int maxSize = Arrays.stream(bucketSizes).max().orElse(0);
+        char[] displacements = new char[RANK_BUCKETS];
+        long[] used = new long[RANK_SLOTS >>> 6];
+        int[] slots = new int[maxSize];
+        for (int size = maxSize; size > 0; size--) {
+            for (int b = 0; b < RANK_BUCKETS; b++) {
+                if (bucketSizes[b] != size) {
+                    continue;
+                }
+                int d = 0;
+                while (!place(bucketKeys, bucketStart[b], size, d, used, slots)) {
+                    if (++d == RANK_SLOTS) {
+                        throw new IllegalStateException("Cannot place rank hash bucket " + b);
+                    }
+                }
+                displacements[b] = (char) d;
+            }
+        }
+        return displacements;
+    }
+
+    private static boolean place(int[] bucketKeys, int start, int size, int d, long[] used, int[] slots) {
+        for (int i = 0; i < size; i++) {
+            int slot = slot(bucketKeys[start + i], d);
+            if ((used[slot >>> 6] & (1L << slot)) != 0) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        for (int i = 0; i < size; i++) {
+            used[slots[i] >>> 6] |= 1L << slots[i];
+        }
+        return true;
+    }
+
+    private static int bucket(int rankKey) {
+        return (int) ((rankKey * HASH_MULTIPLIER) >>> (64 - BUCKET_BITS));
+    }
+
+    private static int slot(int rankKey, int displacement) {
+        long hash = rankKey * HASH_MULTIPLIER;
+        int f1 = (int) hash;
+        int f2 = (int) (hash >>> 16) | 1;
+        return (f1 + displacement * f2) & (RANK_SLOTS - 1);
+    }
+
+    private static int rankSlot(int rankKey) {
+        return slot(rankKey, DISPLACEMENTS[bucket(rankKey)]);
+    }
+
+    /**
+     * Evaluates exactly seven cards given as a {@link Card#toBits()} bit mask.
+     * Allocation-free; the mask is not validated.
+     */
+    public static int evaluate(long cards) {
+        long key = cardKeys(cards);
+
+        int flushSuits = ((int) key + FLUSH_CHECK_ADD) & FLUSH_CHECK_MASK;
+        if (flushSuits != 0) {
+            int suit = Integer.numberOfTrailingZeros(flushSuits) >>> 2;
+            return FLUSH_TABLE[suitRanks(cards, suit)];
+        }
+        return RANK_TABLE[rankSlot((int) (key >>> RANK_KEY_SHIFT))];
+    }
+
+    /**
+     * Sum of the card keys of a mask: rank key from bit {@link #RANK_KEY_SHIFT}
+     * up, the count of each suit in the nibble at {@code suit * SUIT_SHIFT}.
+     */
+    static long cardKeys(long cards) {
+        return BYTE_KEYS[(int) cards & 0xFF]
+            + BYTE_KEYS[256 + ((int) (cards >>> 8) & 0xFF)]
+            + BYTE_KEYS[512 + ((int) (cards >>> 16) & 0xFF)]
+            + BYTE_KEYS[768 + ((int) (cards >>> 24) & 0xFF)]
+            + BYTE_KEYS[1024 + ((int) (cards >>> 32) & 0xFF)]
+            + BYTE_KEYS[1280 + ((int) (cards >>> 40) & 0xFF)]
+            + BYTE_KEYS[1536 + ((int) (cards >>> 48) & 0xFF)];
+    }
+
+    /** Key of the card at {@code bit}, as summed by {@link #cardKeys(long)}. */
+    static long cardKey(int bit) {
+        return CARD_KEYS[bit];
+    }
+
+    /** Rank part of the key of the card at {@code bit}; suitless. */
+    static int rankKey(int bit) {
+        return RANK_CARD_KEYS[bit];
+    }
+
+    /** Strength of a seven-card flush from the 13-bit rank set of its suit. */
+    static int flushStrength(int suitRanks) {
+        return FLUSH_TABLE[suitRanks];
+    }
+
+    /** Strength of seven cards without a flush, from the sum of their rank keys. */
+    static int rankStrength(int rankKey) {
+        return RANK_TABLE[rankSlot(rankKey)];
+    }
+
+    /**
+     * Returns the 13-bit rank set of one suit in a card mask.
+     */
+    static int suitRanks(long cards, int suit) {
+        // Gather every fourth bit into 13 contiguous bits
+        long x = (cards >>> suit) & 0x1111111111111L;
+        x = (x | (x >>> 3)) & 0x0303030303030303L;
+        x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+        x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+        x = (x | (x >>> 24)) & 0xFFFFL;
+        return (int) x;
+    }
+
+    /**
+     * Number of entries in the rank-multiset table (the perfect hash range).
+     */
+    static int rankTableSize() {
+        return RANK_TABLE.length;
+    }
+}
@@ -3,15 +3,46 @@ package com.equitycalc.simulation;
 import java.io.Serializable;
 
 public class SimulationResult implements Serializable {
-    private final int[] wins;
-    private final int[] losses;
-    private final int[] splits;
-    private int totalHands;
+    /**
+     * Equity is accumulated in shares of 1/EQUITY_UNIT of a pot per hand. 2520 is
+     * divisible by every split size from 1 to 10, so split pots stay exact.
+     */
+    public static final int EQUITY_UNIT = 2520;
+
+    private final long[] wins;
+    private final long[] losses;
+    private final long[] splits;
+    private final long[] equityShares;
+    // Sums of squared per-hand shares, for the variance of the equity estimate
+    private final long[] equitySquares;
+    private long totalHands;
     
     public SimulationResult(int numPlayers) {
-        wins = new int[numPlayers];
-        losses = new int[numPlayers];
-        splits = new int[numPlayers];
+        wins = new long[numPlayers];
+        losses = new long[numPlayers];
+        splits = new long[numPlayers];
+        equityShares = new long[numPlayers];
+        equitySquares = new long[numPlayers];
+    }
+    
+    public int getNumPlayers() {
+        return wins.length;
+    }
+    
+    public long getTotalHands() {
+        return totalHands;
+    }
+    
+    public long getWins(int playerIndex) {
+        return wins[playerIndex];
+    }
+    
+    public long getLosses(int playerIndex) {
+        return losses[playerIndex];
+    }
+    
+    public long getSplits(int playerIndex) {
+        return splits[playerIndex];
     }
     
     public double getWinProbability(int playerIndex) {
@@ -26,19 +57,122 @@ public class SimulationResult implements Serializable {
         return totalHands > 0 ? (double) splits[playerIndex] / totalHands : 0;
     }
     
-    public void incrementWin(int playerIndex) {
-        wins[playerIndex]++;
+    /**
+     * Share of the pot won on average: wins plus each split divided by the number
+     * of players splitting.
+     */
+    public double getEquity(int playerIndex) {
+        return totalHands > 0 ? (double) equityShares[playerIndex] / ((double) EQUITY_UNIT * totalHands) : 0;
     }
     
-    public void incrementLoss(int playerIndex) {
-        losses[playerIndex]++;
+    /**
+     * Sample variance of a single hand's equity for this player.
+     */
+    public double getEquityVariance(int playerIndex) {
+        if (totalHands < 2) {
+            return 0;
+        }
+        double mean = getEquity(playerIndex);
+        double meanSquare = (double) equitySquares[playerIndex]
+            / ((double) EQUITY_UNIT * EQUITY_UNIT * totalHands);
+        return Math.max(0, meanSquare - mean * mean) * totalHands / (totalHands - 1);
     }
     
-    public void incrementSplit(int playerIndex) {
-        splits[playerIndex]++;
+    /**
+     * Standard error of {@link #getEquity(int)} when the hands are independent samples.
+     */
+    public double getEquityStandardError(int playerIndex) {
+        return totalHands > 0 ? Math.sqrt(getEquityVariance(playerIndex) / totalHands) : 0;
     }
     
-    public void incrementTotalHands() {
-        totalHands++;
+    /**
+     * Half-width of the normal-approximation confidence interval for the equity,
+     * e.g. {@code confidence = 0.95} for a 95% interval.
+     */
+    public double getEquityHalfWidth(int playerIndex, double confidence) {
+        return PrecisionTarget.zScore(confidence) * getEquityStandardError(playerIndex);
+    }
+    
+    /**
+     * Records one showdown, counted {@code weight} times, from the strengths of the
+     * first {@code numPlayers} entries (higher is better, equal values tie).
+     * Allocation-free.
+     */
+    public void recordShowdown(int[] strengths, int numPlayers, long weight) {
+        int best = strengths[0];
+        int winnerCount = 1;
+        for (int i = 1; i < numPlayers; i++) {
+            if (strengths[i] > best) {
+                best = strengths[i];
+                winnerCount = 1;
+            } else if (strengths[i] == best) {
+                winnerCount++;
+            }
+        }
+
+        totalHands += weight;
+        if (winnerCount == 1) {
+            for (int i = 0; i < numPlayers; i++) {
+                if (strengths[i] == best) {
+                    wins[i] += weight;
+                    equityShares[i] += weight * EQUITY_UNIT;
+                    equitySquares[i] += weight * EQUITY_UNIT * EQUITY_UNIT;
+                } else {
+                    losses[i] += weight;
+                }
+            }
+        } else {
+            long share = EQUITY_UNIT / winnerCount;
+            for (int i = 0; i < numPlayers; i++) {
+                if (strengths[i] == best) {
+                    splits[i] += weight;
+                    equityShares[i] += weight * share;
+                    equitySquares[i] += weight * share * share;
+                } else {
+                    losses[i] += weight;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records {@code weight} showdowns won or split by the players whose bits are
+     * set in {@code winners}; every other of the first {@code numPlayers} loses.
+     */
+    public void recordWinners(int winners, int numPlayers, long weight) {
+        totalHands += weight;
+        int winnerCount = Integer.bitCount(winners);
+        long share = EQUITY_UNIT / winnerCount;
+        for (int i = 0; i < numPlayers; i++) {
+            if ((winners & (1 << i)) == 0) {
+                losses[i] += weight;
+            } else {
+                if (winnerCount == 1) {
+                    wins[i] += weight;
+                } else {
+                    splits[i] += weight;
+                }
+                equityShares[i] += weight * share;
+                equitySquares[i] += weight * share * share;
+            }
+        }
+    }
+
+    /**
+     * Adds the counts of another result for the same players into this one.
+     */
+    public void merge(SimulationResult other) {
+        if (other.getNumPlayers() != getNumPlayers()) {
+            throw new IllegalArgumentException("Cannot merge results for "
+                + other.getNumPlayers() + " players into " + getNumPlayers());
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+            losses[i] += other.losses[i];
+            splits[i] += other.splits[i];
+            equityShares[i] += other.equityShares[i];
+            equitySquares[i] += other.equitySquares[i];
+        }
+        totalHands += other.totalHands;
     }
-}
\ No newline at end of file
+}
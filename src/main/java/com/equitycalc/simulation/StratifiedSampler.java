@@ -0,0 +1,327 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Stratified Monte Carlo over flop classes.
+ *
+ * <p>The first group of dealt cards (the flop preflop, otherwise the next card)
+ * is classified by how it lands for the players: who leads on the partial board
+ * (or a tie), the leader's hand category, and whether a trailing player holds a
+ * four-flush. These classes track the final outcome far more closely than
+ * board texture alone. All possible groups are enumerated once, so each
+ * stratum's probability is exact, and a sample draws a group uniformly inside
+ * its stratum before dealing the rest of the board from the live mask.
+ * Samples are allocated in proportion to the stratum probabilities, or by
+ * Neyman allocation from a proportional pilot, and the per-stratum results are
+ * combined with the stratum probabilities as weights.
+ */
+public class StratifiedSampler {
+    public enum Allocation {
+        PROPORTIONAL,
+        NEYMAN
+    }
+
+    private static final int BOARD_SIZE = 5;
+    private static final int FLOP_SIZE = 3;
+    private static final int CATEGORIES = HandRanking.Type.values().length;
+    private static final long SUIT_CARDS = 0x1111111111111L;
+    // Share of the samples spent on the pilot run of a Neyman allocation
+    private static final double PILOT_FRACTION = 0.1;
+    // Samples every non-empty stratum receives, so its variance can be estimated
+    private static final int MIN_STRATUM_SAMPLES = 2;
+
+    private final long[] holeCards;
+    private final long board;
+    private final long live;
+    private final int groupSize;
+    private final int restSize;
+    private final int strataCount;
+    // Card groups of each stratum and the stratum probabilities
+    private final long[][] groups;
+    private final double[] probabilities;
+
+    /**
+     * @param holeCards {@link Card#toBits()} masks of each player's two hole cards
+     * @param board     known board cards
+     * @param dead      cards removed from the deck
+     */
+    public StratifiedSampler(long[] holeCards, long board, long dead) {
+        this.holeCards = holeCards.clone();
+        this.board = board;
+        long used = board | dead;
+        for (long hand : holeCards) {
+            used |= hand;
+        }
+        this.live = Deck.FULL_DECK_MASK & ~used;
+        int toDeal = BOARD_SIZE - Long.bitCount(board);
+        this.groupSize = Math.min(FLOP_SIZE, toDeal);
+        this.restSize = toDeal - groupSize;
+        // Leader (or tie) x leader's category x trailing four-flush
+        this.strataCount = (holeCards.length + 1) * CATEGORIES * 2;
+
+        int[] liveCards = new int[Long.bitCount(live)];
+        long rest = live;
+        for (int i = 0; rest != 0; i++) {
+            liveCards[i] = Long.numberOfTrailingZeros(rest);
+            rest &= rest - 1;
+        }
+        int[] counts = new int[strataCount];
+        collectGroups(liveCards, 0, groupSize, 0L, counts, null);
+        groups = new long[strataCount][];
+        for (int h = 0; h < strataCount; h++) {
+            groups[h] = new long[counts[h]];
+        }
+        collectGroups(liveCards, 0, groupSize, 0L, new int[strataCount], groups);
+
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        probabilities = new double[strataCount];
+        for (int h = 0; h < strataCount; h++) {
+            probabilities[h] = (double) counts[h] / total;
+        }
+    }
+
+    private void collectGroups(int[] liveCards, int from, int remaining, long group, int[] fill, long[][] out) {
+        if (remaining == 0) {
+            int h = stratum(board | group);
+            if (out != null) {
+                out[h][fill[h]] = group;
+            }
+            fill[h]++;
+            return;
+        }
+        for (int i = from; i <= liveCards.length - remaining; i++) {
+            collectGroups(liveCards, i + 1, remaining - 1, group | 1L << liveCards[i], fill, out);
+        }
+    }
+
+    /**
+     * Class of a partial board for these players.
+     */
+    int stratum(long cards) {
+        int players = holeCards.length;
+        int best = 0;
+        int leader = 0;
+        for (int i = 0; i < players; i++) {
+            int strength = BitHandEvaluator.evaluate(holeCards[i] | cards);
+            if (strength > best) {
+                best = strength;
+                leader = i;
+            } else if (strength == best) {
+                leader = players;
+            }
+        }
+        int flushDraw = 0;
+        for (int i = 0; i < players; i++) {
+            if (i != leader && maxSuitCount(holeCards[i] | cards) >= 4) {
+                flushDraw = 1;
+            }
+        }
+        return (leader * CATEGORIES + BitHandEvaluator.category(best).ordinal()) * 2 + flushDraw;
+    }
+
+    private static int maxSuitCount(long cards) {
+        int max = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            max = Math.max(max, Long.bitCount(cards & (SUIT_CARDS << suit)));
+        }
+        return max;
+    }
+
+    /** Number of strata with at least one possible card group. */
+    public int getStrataCount() {
+        int count = 0;
+        for (long[] stratum : groups) {
+            if (stratum.length > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Draws {@code samples} boards allocated over the strata and returns the combined estimate.
+     */
+    public Estimate run(int samples, Allocation allocation, RandomGenerator random) {
+        int players = holeCards.length;
+        SimulationResult[] results = new SimulationResult[strataCount];
+        for (int h = 0; h < strataCount; h++) {
+            results[h] = new SimulationResult(players);
+        }
+        int[] strengths = new int[players];
+
+        if (allocation == Allocation.PROPORTIONAL) {
+            sample(allocate(samples, probabilities, MIN_STRATUM_SAMPLES), results, strengths, random);
+        } else {
+            int pilot = (int) (samples * PILOT_FRACTION);
+            int[] pilotAllocation = allocate(pilot, probabilities, MIN_STRATUM_SAMPLES);
+            sample(pilotAllocation, results, strengths, random);
+
+            // Neyman: n_h proportional to p_h * sigma_h, summed over players
+            double[] scores = new double[strataCount];
+            for (int h = 0; h < strataCount; h++) {
+                double sigma = 0;
+                for (int i = 0; i < players; i++) {
+                    sigma += Math.sqrt(results[h].getEquityVariance(i));
+                }
+                scores[h] = probabilities[h] * sigma;
+            }
+            int used = 0;
+            for (int n : pilotAllocation) {
+                used += n;
+            }
+            sample(allocate(samples - used, normalise(scores), 0), results, strengths, random);
+        }
+        return new Estimate(results, probabilities);
+    }
+
+    private void sample(int[] allocation, SimulationResult[] results, int[] strengths, RandomGenerator random) {
+        BoardState boardState = new BoardState();
+        for (int h = 0; h < strataCount; h++) {
+            long[] stratum = groups[h];
+            for (int n = 0; n < allocation[h]; n++) {
+                long group = stratum[random.nextInt(stratum.length)];
+                boardState.set(board | group | MaskDealer.deal(live & ~group, restSize, random))
+                    .evaluateAll(holeCards, strengths);
+                results[h].recordShowdown(strengths, holeCards.length, 1);
+            }
+        }
+    }
+
+    // Largest-remainder rounding of samples * weight, with a floor for every possible stratum
+    private int[] allocate(int samples, double[] weights, int minimum) {
+        int[] allocation = new int[strataCount];
+        double[] remainders = new double[strataCount];
+        int assigned = 0;
+        for (int h = 0; h < strataCount; h++) {
+            if (groups[h].length == 0) {
+                continue;
+            }
+            double exact = samples * weights[h];
+            allocation[h] = Math.max(minimum, (int) exact);
+            remainders[h] = exact - (int) exact;
+            assigned += allocation[h];
+        }
+        while (assigned < samples) {
+            int best = -1;
+            for (int h = 0; h < strataCount; h++) {
+                if (groups[h].length > 0 && (best < 0 || remainders[h] > remainders[best])) {
+                    best = h;
+                }
+            }
+            allocation[best]++;
+            remainders[best] = -1;
+            assigned++;
+        }
+        return allocation;
+    }
+
+    private double[] normalise(double[] scores) {
+        double total = 0;
+        for (double score : scores) {
+            total += score;
+        }
+        if (total == 0) {
+            return probabilities;
+        }
+        double[] weights = new double[scores.length];
+        for (int h = 0; h < scores.length; h++) {
+            weights[h] = scores[h] / total;
+        }
+        return weights;
+    }
+
+    /**
+     * Stratified estimate: per-stratum results weighted by the stratum probabilities.
+     */
+    public static final class Estimate {
+        private final SimulationResult[] strata;
+        private final double[] probabilities;
+        private final long totalHands;
+
+        Estimate(SimulationResult[] strata, double[] probabilities) {
+            this.strata = strata;
+            this.probabilities = probabilities;
+            long hands = 0;
+            for (SimulationResult stratum : strata) {
+                hands += stratum.getTotalHands();
+            }
+            this.totalHands = hands;
+        }
+
+        public long getTotalHands() {
+            return totalHands;
+        }
+
+        public double getEquity(int playerIndex) {
+            double equity = 0;
+            for (int h = 0; h < strata.length; h++) {
+                equity += probabilities[h] * strata[h].getEquity(playerIndex);
+            }
+            return equity;
+        }
+
+        public double getWinProbability(int playerIndex) {
+            double win = 0;
+            for (int h = 0; h < strata.length; h++) {
+                win += probabilities[h] * strata[h].getWinProbability(playerIndex);
+            }
+            return win;
+        }
+
+        public double getSplitProbability(int playerIndex) {
+            double split = 0;
+            for (int h = 0; h < strata.length; h++) {
+                split += probabilities[h] * strata[h].getSplitProbability(playerIndex);
+            }
+            return split;
+        }
+
+        public double getLossProbability(int playerIndex) {
+            double loss = 0;
+            for (int h = 0; h < strata.length; h++) {
+                loss += probabilities[h] * strata[h].getLossProbability(playerIndex);
+            }
+            return loss;
+        }
+
+        /** Variance of the stratified equity estimate: sum of p_h^2 s_h^2 / n_h. */
+        public double getEquityVariance(int playerIndex) {
+            double variance = 0;
+            for (int h = 0; h < strata.length; h++) {
+                long n = strata[h].getTotalHands();
+                if (n > 0) {
+                    variance += probabilities[h] * probabilities[h] * strata[h].getEquityVariance(playerIndex) / n;
+                }
+            }
+            return variance;
+        }
+
+        public double getEquityStandardError(int playerIndex) {
+            return Math.sqrt(getEquityVariance(playerIndex));
+        }
+
+        /**
+         * Estimated variance of plain random sampling with the same number of
+         * hands divided by the variance achieved here; above 1 means stratifying paid off.
+         */
+        public double getVarianceReduction(int playerIndex) {
+            double mean = getEquity(playerIndex);
+            double total = 0;
+            for (int h = 0; h < strata.length; h++) {
+                if (strata[h].getTotalHands() > 0) {
+                    double deviation = strata[h].getEquity(playerIndex) - mean;
+                    total += probabilities[h] * (strata[h].getEquityVariance(playerIndex) + deviation * deviation);
+                }
+            }
+            double stratified = getEquityVariance(playerIndex);
+            return stratified > 0 ? total / totalHands / stratified : 1;
+        }
+    }
+}
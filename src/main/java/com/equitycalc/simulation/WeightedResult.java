@@ -0,0 +1,114 @@
+package com.equitycalc.simulation;
+
+/**
+ * Accumulates showdowns drawn from a biased proposal, each with its likelihood
+ * ratio as weight.
+ *
+ * <p>Estimates are plain means of {@code weight * outcome} over the samples,
+ * which are unbiased because the weights are exact likelihood ratios, with
+ * standard errors from the matching sums of squares. Besides win and equity
+ * rates it keeps each player's wins split by hand category, for tail
+ * questions such as how often the underdog wins with a runner-runner flush.
+ */
+public class WeightedResult {
+    private static final int CATEGORIES = HandRanking.Type.values().length;
+
+    private final int numPlayers;
+    private long samples;
+    private double sumWeight;
+    private double sumWeightSquared;
+    private final double[] winWeight;
+    private final double[] winWeightSquared;
+    private final double[] equityWeight;
+    private final double[] equityWeightSquared;
+    private final double[][] categoryWinWeight;
+
+    public WeightedResult(int numPlayers) {
+        this.numPlayers = numPlayers;
+        winWeight = new double[numPlayers];
+        winWeightSquared = new double[numPlayers];
+        equityWeight = new double[numPlayers];
+        equityWeightSquared = new double[numPlayers];
+        categoryWinWeight = new double[numPlayers][CATEGORIES];
+    }
+
+    /**
+     * Records one showdown from the first {@code numPlayers} strengths with the given weight.
+     */
+    public void record(int[] strengths, double weight) {
+        int best = 0;
+        int winners = 0;
+        for (int i = 0; i < numPlayers; i++) {
+            if (strengths[i] > best) {
+                best = strengths[i];
+                winners = 1;
+            } else if (strengths[i] == best) {
+                winners++;
+            }
+        }
+        samples++;
+        sumWeight += weight;
+        sumWeightSquared += weight * weight;
+        double share = weight / winners;
+        for (int i = 0; i < numPlayers; i++) {
+            if (strengths[i] == best) {
+                equityWeight[i] += share;
+                equityWeightSquared[i] += share * share;
+                if (winners == 1) {
+                    winWeight[i] += weight;
+                    winWeightSquared[i] += weight * weight;
+                    categoryWinWeight[i][BitHandEvaluator.category(best).ordinal()] += weight;
+                }
+            }
+        }
+    }
+
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    public long getTotalHands() {
+        return samples;
+    }
+
+    /** Probability that the player wins outright. */
+    public double getWinProbability(int playerIndex) {
+        return samples > 0 ? winWeight[playerIndex] / samples : 0;
+    }
+
+    public double getWinStandardError(int playerIndex) {
+        return standardError(winWeight[playerIndex], winWeightSquared[playerIndex]);
+    }
+
+    public double getEquity(int playerIndex) {
+        return samples > 0 ? equityWeight[playerIndex] / samples : 0;
+    }
+
+    public double getEquityStandardError(int playerIndex) {
+        return standardError(equityWeight[playerIndex], equityWeightSquared[playerIndex]);
+    }
+
+    /** Probability that the player wins outright holding the given category. */
+    public double getCategoryWinProbability(int playerIndex, HandRanking.Type category) {
+        return samples > 0 ? categoryWinWeight[playerIndex][category.ordinal()] / samples : 0;
+    }
+
+    /** Mean weight; close to 1 when the proposal is sound. */
+    public double getMeanWeight() {
+        return samples > 0 ? sumWeight / samples : 0;
+    }
+
+    /** Kish effective sample size, (sum w)^2 / sum w^2. */
+    public double getEffectiveSampleSize() {
+        return sumWeightSquared > 0 ? sumWeight * sumWeight / sumWeightSquared : 0;
+    }
+
+    private double standardError(double sum, double sumSquared) {
+        if (samples < 2) {
+            return 0;
+        }
+        double mean = sum / samples;
+        double variance = Math.max(0, sumSquared / samples - mean * mean) * samples / (samples - 1);
+        return Math.sqrt(variance / samples);
+    }
+}
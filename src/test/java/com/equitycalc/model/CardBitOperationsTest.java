@@ -48,6 +48,16 @@ public class CardBitOperationsTest {
         assertTrue(Card.isBitSet(mask, kingHearts));
     }
 
+    @Test
+    void listToBitMask() {
+        Card aceSpades = new Card(Rank.ACE, Suit.SPADES);
+        Card kingHearts = new Card(Rank.KING, Suit.HEARTS);
+        assertEquals(0L, Card.toBitMask(null));
+        assertEquals(0L, Card.toBitMask(List.of()));
+        assertEquals(Card.cardToBitMask(aceSpades) | Card.cardToBitMask(kingHearts),
+            Card.toBitMask(List.of(aceSpades, kingHearts)));
+    }
+
     @Test
     void countCardsInBitMask() {
         long mask = 0L;
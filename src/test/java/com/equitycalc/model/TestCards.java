@@ -0,0 +1,19 @@
+package com.equitycalc.model;
+
+/**
+ * Card fixtures shared by the tests.
+ */
+public final class TestCards {
+
+    private TestCards() {
+    }
+
+    /** {@link Card#toBits()} mask of cards written like {@code "Ah"}. */
+    public static long mask(String... cards) {
+        long mask = 0L;
+        for (String card : cards) {
+            mask = Card.addCardToBitMask(mask, new Card(card));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,152 @@
+package com.equitycalc.range;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandRangeTest {
+
+    private int combo(String first, String second) {
+        return HandRange.comboIndex(mask(first, second));
+    }
+
+    @Test
+    void testComboIndexing() {
+        boolean[] seen = new boolean[HandRange.COMBOS];
+        for (int high = 1; high < 52; high++) {
+            for (int low = 0; low < high; low++) {
+                int combo = HandRange.comboIndex(high, low);
+                assertFalse(seen[combo]);
+                seen[combo] = true;
+                assertEquals(1L << low | 1L << high, HandRange.comboCards(combo));
+                assertEquals(combo, HandRange.comboIndex(HandRange.comboCards(combo)));
+            }
+        }
+        assertEquals(0, HandRange.comboIndex(0, 1));
+        assertEquals(HandRange.COMBOS - 1, HandRange.comboIndex(50, 51));
+        assertThrows(IllegalArgumentException.class, () -> HandRange.comboIndex(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> HandRange.comboIndex(mask("As")));
+    }
+
+    @Test
+    void testHandClassSizes() {
+        assertEquals(6, HandRange.parse("QQ").size());
+        assertEquals(4, HandRange.parse("AKs").size());
+        assertEquals(12, HandRange.parse("AKo").size());
+        assertEquals(16, HandRange.parse("AK").size());
+        assertEquals(16, HandRange.parse("AK+").size());
+        assertEquals(18, HandRange.parse("QQ+").size());
+        assertEquals(24, HandRange.parse("22-55").size());
+        assertEquals(24, HandRange.parse("55-22").size());
+        assertEquals(16, HandRange.parse("ATs+").size());
+        assertEquals(48, HandRange.parse("K9o-K6o").size());
+        assertEquals(1, HandRange.parse("AhKh").size());
+        assertEquals(HandRange.COMBOS, HandRange.parse("22+,A2+,K2+,Q2+,J2+,T2+,92+,82+,72+,62+,52+,42+,32").size());
+        assertTrue(HandRange.parse("").isEmpty());
+    }
+
+    @Test
+    void testMembership() {
+        HandRange range = HandRange.parse("ATs+, 99-77, KQo, 7h6h");
+        assertTrue(range.contains(combo("As", "Ts")));
+        assertTrue(range.contains(combo("Ad", "Kd")));
+        assertFalse(range.contains(combo("As", "Td")));
+        assertFalse(range.contains(combo("As", "9s")));
+        assertTrue(range.contains(combo("8c", "8d")));
+        assertFalse(range.contains(combo("Tc", "Td")));
+        assertTrue(range.contains(combo("Kc", "Qd")));
+        assertFalse(range.contains(combo("Kc", "Qc")));
+        assertTrue(range.contains(combo("7h", "6h")));
+        assertFalse(range.contains(combo("7s", "6s")));
+        assertEquals(16 + 18 + 12 + 1, range.size());
+
+        int previous = -1;
+        for (int combo : range.combos()) {
+            assertTrue(combo > previous);
+            assertEquals(combo, range.nextCombo(previous + 1));
+            previous = combo;
+        }
+        assertEquals(-1, range.nextCombo(previous + 1));
+    }
+
+    @Test
+    void testWeights() {
+        HandRange plain = HandRange.parse("AA,KK");
+        assertFalse(plain.isWeighted());
+        assertEquals(1f, plain.getWeight(combo("As", "Ah")));
+        assertEquals(0f, plain.getWeight(combo("Qs", "Qh")));
+
+        HandRange weighted = HandRange.parse("AA,KK:0.5,AKs:0.25,AsKs:1,QQ,QsQh:0");
+        assertTrue(weighted.isWeighted());
+        assertEquals(1f, weighted.getWeight(combo("As", "Ah")));
+        assertEquals(0.5f, weighted.getWeight(combo("Ks", "Kh")));
+        assertEquals(0.25f, weighted.getWeight(combo("Ah", "Kh")));
+        assertEquals(1f, weighted.getWeight(combo("As", "Ks")));
+        assertFalse(weighted.contains(combo("Qs", "Qh")));
+        assertEquals(6 + 6 + 4 + 5, weighted.size());
+        assertEquals(6 + 3 + 0.75 + 1 + 5, weighted.getTotalWeight(), 1e-6);
+    }
+
+    @Test
+    void testCacheByNormalisedText() {
+        HandRange range = HandRange.parse("AKs+, qq-tt");
+        assertSame(range, HandRange.parse("aks+,QQ-TT"));
+        assertEquals("AKs+,QQ-TT", range.getText());
+        assertEquals(HandRange.parse("TT+"), HandRange.parse("AA,KK,QQ,JJ,TT"));
+
+        // Weights are cached by value, not spelling
+        HandRange weighted = HandRange.parse("AKs:0.5,QQ:1");
+        assertSame(weighted, HandRange.parse("AKs:0.50, QQ:1.0"));
+        assertSame(weighted, HandRange.parse("aks:.5,qq:1.000"));
+        assertEquals("AKs:0.5,QQ:1", weighted.getText());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        HandRange first = HandRange.parse("AA:0.001");
+        for (int n = 1; n <= 1000; n++) {
+            HandRange.parse("KK:" + n / 1000.0);
+        }
+        HandRange again = HandRange.parse("AA:0.001");
+        assertNotSame(first, again);
+        assertEquals(first, again);
+    }
+
+    @Test
+    void testOfHands() {
+        HandRange range = HandRange.of(mask("As", "Ks"), mask("7d", "2c"));
+        assertEquals(2, range.size());
+        assertTrue(range.contains(combo("Ks", "As")));
+        assertEquals("AsKs,7d2c", range.getText());
+    }
+
+    @Test
+    void testHandClasses() {
+        assertEquals(0, HandRange.handClass(combo("As", "Ah")));
+        assertEquals(1, HandRange.handClass(combo("As", "Ks")));
+        assertEquals(13, HandRange.handClass(combo("As", "Kd")));
+        assertEquals(HandRange.HAND_CLASSES - 1, HandRange.handClass(combo("2s", "2h")));
+        assertEquals("AKs", HandRange.handClassName(1));
+        assertEquals("AKo", HandRange.handClassName(13));
+        assertEquals("22", HandRange.handClassName(HandRange.HAND_CLASSES - 1));
+
+        int[] sizes = new int[HandRange.HAND_CLASSES];
+        for (int combo = 0; combo < HandRange.COMBOS; combo++) {
+            sizes[HandRange.handClass(combo)]++;
+        }
+        for (int c = 0; c < HandRange.HAND_CLASSES; c++) {
+            HandRange range = HandRange.parse(HandRange.handClassName(c));
+            assertEquals(range.size(), sizes[c], HandRange.handClassName(c));
+            for (int combo : range.combos()) {
+                assertEquals(c, HandRange.handClass(combo));
+            }
+        }
+    }
+
+    @Test
+    void testRejectsInvalidTokens() {
+        for (String text : new String[]{"AKx", "A", "AAs", "AK-QJ", "22-AKs", "AsAs", "AK:2", "AK:x", "AK,,QQ", "ZZ"}) {
+            assertThrows(IllegalArgumentException.class, () -> HandRange.parse(text), text);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchMeansResultTest {
+
+    // A batch of hands all won by one player
+    private SimulationResult batch(int hands, int winner) {
+        SimulationResult batch = new SimulationResult(2);
+        int[] strengths = winner == 0 ? new int[]{2, 1} : new int[]{1, 2};
+        for (int n = 0; n < hands; n++) {
+            batch.recordShowdown(strengths, 2, 1);
+        }
+        return batch;
+    }
+
+    @Test
+    void testCorrelatedBatchesWidenTheError() {
+        // Hands within a batch are perfectly correlated, so only the ten batches count
+        BatchMeansResult result = new BatchMeansResult(2);
+        for (int b = 0; b < 10; b++) {
+            result.addBatch(batch(100, b % 2));
+        }
+        assertEquals(10, result.getBatches());
+        assertEquals(1000, result.getTotalHands());
+        assertEquals(0.5, result.getEquity(0), 1e-12);
+        assertEquals(Math.sqrt(10 * 100 * 0.25 / 9 / 1000), result.getEquityStandardError(0), 1e-12);
+        assertTrue(result.getEquityStandardError(0) > 10 * Math.sqrt(result.getEquityVariance(0) / 1000));
+        assertEquals(9.0, result.getEffectiveSampleSize(0), 0.1);
+    }
+
+    @Test
+    void testSingleBatchHasNoError() {
+        BatchMeansResult result = new BatchMeansResult(2);
+        result.addBatch(batch(PrecisionTarget.MIN_HANDS * 2, 0));
+        assertEquals(Double.POSITIVE_INFINITY, result.getEquityStandardError(0));
+        assertFalse(new PrecisionTarget(0.5, 0.95).isMet(result));
+    }
+
+    @Test
+    void testMergeKeepsBatches() {
+        BatchMeansResult first = new BatchMeansResult(2);
+        first.addBatch(batch(50, 0));
+        BatchMeansResult second = new BatchMeansResult(2);
+        second.addBatch(batch(50, 1));
+        second.addBatch(batch(100, 1));
+        first.merge(second);
+        assertEquals(3, first.getBatches());
+        assertEquals(200, first.getTotalHands());
+        assertEquals(0.25, first.getEquity(0), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> first.merge(batch(10, 0)));
+    }
+}
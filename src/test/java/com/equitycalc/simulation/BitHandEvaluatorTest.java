@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 public class BitHandEvaluatorTest {
@@ -168,4 +171,131 @@ public class BitHandEvaluatorTest {
         assertTrue(royalFlush.compareTo(straightFlush) > 0);
         assertTrue(straightFlush.compareTo(fourOfAKind) > 0);
     }
+
+    @Test
+    void testSevenCardHandUsesBestFive() throws InterruptedException, ExecutionException {
+        HandRanking ranking = BitHandEvaluator.evaluateHand(
+            hand("AS", "AH", "KD", "KC", "QS", "QH", "2D"));
+        assertEquals(HandRanking.Type.TWO_PAIR, ranking.type);
+        assertEquals(Arrays.asList(Card.Rank.ACE, Card.Rank.KING, Card.Rank.QUEEN), ranking.tiebreakers);
+    }
+    
+    @Test
+    void testSixCardFlushBeatsStraight() throws InterruptedException, ExecutionException {
+        HandRanking ranking = BitHandEvaluator.evaluateHand(
+            hand("9H", "8H", "7H", "6D", "5H", "2H"));
+        assertEquals(HandRanking.Type.FLUSH, ranking.type);
+        assertEquals(Card.Rank.NINE, ranking.tiebreakers.get(0));
+    }
+    
+    @Test
+    void testWheelIsFiveHigh() {
+        int wheel = BitHandEvaluator.evaluate(hand("AS", "2H", "3D", "4C", "5S", "KH", "KD").toBitMask());
+        int sixHigh = BitHandEvaluator.evaluate(hand("2H", "3D", "4C", "5S", "6H", "KH", "KD").toBitMask());
+        assertEquals(HandRanking.Type.STRAIGHT, BitHandEvaluator.category(wheel));
+        assertEquals(Card.Rank.FIVE, BitHandEvaluator.toHandRanking(wheel).tiebreakers.get(0));
+        assertTrue(sixHigh > wheel);
+    }
+    
+    @Test
+    void testFullHouseFromTwoTrips() {
+        int strength = BitHandEvaluator.evaluate(hand("KS", "KH", "KD", "7C", "7S", "7H", "2D").toBitMask());
+        HandRanking ranking = BitHandEvaluator.toHandRanking(strength);
+        assertEquals(HandRanking.Type.FULL_HOUSE, ranking.type);
+        assertEquals(Arrays.asList(Card.Rank.KING, Card.Rank.SEVEN), ranking.tiebreakers);
+    }
+    
+    @Test
+    void testKickerDecidesPair() {
+        int aceKing = BitHandEvaluator.evaluate(hand("AS", "KH", "QD", "QC", "8S", "5H", "2D").toBitMask());
+        int aceJack = BitHandEvaluator.evaluate(hand("AS", "JH", "QD", "QC", "8S", "5H", "2D").toBitMask());
+        assertTrue(aceKing > aceJack);
+        int split = BitHandEvaluator.evaluate(hand("AH", "KS", "QD", "QC", "8S", "5H", "2D").toBitMask());
+        assertEquals(aceKing, split);
+    }
+    
+    @Test
+    void testStrengthsAreDenseEquivalenceClasses() {
+        // All 2,598,960 five-card hands collapse into the 7,462 known equivalence classes
+        Set<Integer> strengths = new HashSet<>();
+        for (int c1 = 0; c1 < 52; c1++)
+            for (int c2 = c1 + 1; c2 < 52; c2++)
+                for (int c3 = c2 + 1; c3 < 52; c3++)
+                    for (int c4 = c3 + 1; c4 < 52; c4++)
+                        for (int c5 = c4 + 1; c5 < 52; c5++)
+                            strengths.add(BitHandEvaluator.evaluate(
+                                (1L << c1) | (1L << c2) | (1L << c3) | (1L << c4) | (1L << c5)));
+        assertEquals(7462, strengths.size());
+        assertTrue(strengths.stream().allMatch(s -> s >= 1 && s <= BitHandEvaluator.MAX_STRENGTH));
+    }
+    
+    @Test
+    void testDecodedOrderMatchesStrengthOrder() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int a = BitHandEvaluator.evaluate(randomMask(random, 7));
+            int b = BitHandEvaluator.evaluate(randomMask(random, 7));
+            int expected = Integer.signum(Integer.compare(a, b));
+            int actual = Integer.signum(BitHandEvaluator.toHandRanking(a)
+                .compareTo(BitHandEvaluator.toHandRanking(b)));
+            assertEquals(expected, actual);
+        }
+    }
+    
+    @Test
+    void testSevenCardEqualsBestFiveCardSubset() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            long mask = randomMask(random, 7);
+            int best = 0;
+            for (long a = mask; a != 0; a &= a - 1) {
+                for (long b = a & (a - 1); b != 0; b &= b - 1) {
+                    long five = mask & ~Long.lowestOneBit(a) & ~Long.lowestOneBit(b);
+                    best = Math.max(best, BitHandEvaluator.evaluate(five));
+                }
+            }
+            assertEquals(best, BitHandEvaluator.evaluate(mask));
+        }
+    }
+    
+    @Test
+    void testEvaluateBatchMatchesSingleEvaluation() {
+        Random random = new Random(11);
+        long[] masks = new long[3000];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = randomMask(random, 5 + i % 3);
+        }
+        // Make sure seven-card flushes take the lookup's flush path
+        masks[0] = Card.addCardToBitMask(0L, new Card("Ah")) | 0x0111111000000L;
+        int[] out = new int[masks.length];
+        BitHandEvaluator.evaluateBatch(masks, out, 0, masks.length);
+        for (int i = 0; i < masks.length; i++) {
+            assertEquals(BitHandEvaluator.evaluate(masks[i]), out[i]);
+        }
+    }
+    
+    @Test
+    void testEvaluateBatchRange() {
+        Random random = new Random(5);
+        long[] masks = new long[10];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = randomMask(random, 7);
+        }
+        int[] out = new int[masks.length];
+        BitHandEvaluator.evaluateBatch(masks, out, 3, 7);
+        for (int i = 0; i < masks.length; i++) {
+            int expected = i >= 3 && i < 7 ? BitHandEvaluator.evaluate(masks[i]) : 0;
+            assertEquals(expected, out[i]);
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> BitHandEvaluator.evaluateBatch(masks, new int[5], 0, 10));
+    }
+    
+    private long randomMask(Random random, int cards) {
+        long mask = 0L;
+        while (Long.bitCount(mask) < cards) {
+            mask |= 1L << random.nextInt(52);
+        }
+        return mask;
+    }
 }
\ No newline at end of file
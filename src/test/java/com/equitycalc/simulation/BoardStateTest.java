@@ -0,0 +1,142 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class BoardStateTest {
+
+    @Test
+    void testMatchesSevenCardLookupOnRandomRunouts() {
+        SplittableRandom random = new SplittableRandom(17);
+        BoardState state = new BoardState();
+        for (int n = 0; n < 100_000; n++) {
+            long board = MaskDealer.deal(Deck.FULL_DECK_MASK, 5, random);
+            state.set(board);
+            long live = Deck.FULL_DECK_MASK & ~board;
+            for (int i = 0; i < 9; i++) {
+                long hole = MaskDealer.deal(live, 2, random);
+                live &= ~hole;
+                assertEquals(SevenCardLookup.evaluate(board | hole), state.evaluate(hole));
+            }
+        }
+    }
+
+    @Test
+    void testFlushSuitDetection() {
+        BoardState twoTone = new BoardState(mask("Ah", "Kh", "7c", "2d", "9s"));
+        assertEquals(-1, twoTone.getFlushSuit());
+        assertFalse(twoTone.isFlushPossible());
+        BoardState hearts = new BoardState(mask("Ah", "Kh", "7h", "2d", "9s"));
+        assertEquals(Card.Suit.HEARTS.ordinal(), hearts.getFlushSuit());
+        assertTrue(hearts.isFlushPossible());
+        BoardState monotone = new BoardState(mask("Ac", "Kc", "7c", "2c", "9c"));
+        assertEquals(Card.Suit.CLUBS.ordinal(), monotone.getFlushSuit());
+        assertEquals(HandRanking.Type.FLUSH, BitHandEvaluator.category(monotone.evaluate(mask("3d", "4d"))));
+
+        int flush = hearts.evaluate(mask("4h", "3h"));
+        assertEquals(HandRanking.Type.FLUSH, BitHandEvaluator.category(flush));
+        assertEquals(HandRanking.Type.HIGH_CARD, BitHandEvaluator.category(hearts.evaluate(mask("4h", "3c"))));
+    }
+
+    @Test
+    void testRankOnlyPathOnFlushImpossibleBoards() {
+        SplittableRandom random = new SplittableRandom(23);
+        BoardState state = new BoardState();
+        long[] hands = new long[9];
+        int[] strengths = new int[hands.length];
+        int rankOnly = 0;
+        for (int n = 0; n < 20_000; n++) {
+            long board = MaskDealer.deal(Deck.FULL_DECK_MASK, 5, random);
+            long live = Deck.FULL_DECK_MASK & ~board;
+            for (int i = 0; i < hands.length; i++) {
+                hands[i] = MaskDealer.deal(live, 2, random);
+                live &= ~hands[i];
+            }
+            state.set(board).evaluateAll(hands, strengths);
+            if (!state.isFlushPossible()) {
+                rankOnly++;
+            }
+            for (int i = 0; i < hands.length; i++) {
+                assertEquals(SevenCardLookup.evaluate(board | hands[i]), strengths[i]);
+            }
+        }
+        // Boards without three of a suit are the majority
+        assertTrue(rankOnly > 20_000 / 2, "rank-only boards " + rankOnly);
+    }
+
+    @Test
+    void testEvaluateAll() {
+        BoardState state = new BoardState(mask("Ts", "Js", "Qs", "2d", "2c"));
+        long[] hands = {mask("As", "Ks"), mask("2h", "2s"), mask("9h", "8h")};
+        int[] strengths = new int[hands.length];
+        state.evaluateAll(hands, strengths);
+        assertEquals(HandRanking.Type.STRAIGHT_FLUSH, BitHandEvaluator.category(strengths[0]));
+        assertEquals(HandRanking.Type.FOUR_OF_A_KIND, BitHandEvaluator.category(strengths[1]));
+        assertEquals(HandRanking.Type.STRAIGHT, BitHandEvaluator.category(strengths[2]));
+    }
+
+    @Test
+    void testStraightFlushBoardsSkipEvaluationsWithIdenticalResults() {
+        SplittableRandom random = new SplittableRandom(23);
+        BoardState state = new BoardState();
+        SimulationResult pruned = new SimulationResult(6);
+        SimulationResult full = new SimulationResult(6);
+        long[] hands = new long[6];
+        int[] strengths = new int[hands.length];
+        int[] expected = new int[hands.length];
+        long skipped = 0;
+        for (int suit = 0; suit < 4; suit++) {
+            // The wheel, then every straight up to the royal
+            for (int low = -1; low <= 8; low++) {
+                long board = 0L;
+                for (int rank = low; rank < low + 5; rank++) {
+                    board |= 1L << ((rank < 0 ? 12 : rank) * 4 + suit);
+                }
+                state.set(board);
+                long beater = low < 8 ? 1L << ((low + 5) * 4 + suit) : 0L;
+                for (int n = 0; n < 200; n++) {
+                    long live = Deck.FULL_DECK_MASK & ~board;
+                    boolean beaten = false;
+                    for (int i = 0; i < hands.length; i++) {
+                        hands[i] = MaskDealer.deal(live, 2, random);
+                        live &= ~hands[i];
+                        expected[i] = SevenCardLookup.evaluate(board | hands[i]);
+                        beaten |= (hands[i] & beater) != 0;
+                    }
+                    state.evaluateAll(hands, strengths);
+                    assertArrayEquals(expected, strengths);
+                    if (!beaten) {
+                        skipped += hands.length;
+                    }
+                    pruned.recordShowdown(strengths, hands.length, 1);
+                    full.recordShowdown(expected, hands.length, 1);
+                }
+            }
+        }
+        assertEquals(skipped, state.getPrunedEvaluations());
+        assertTrue(skipped > 0 && skipped < 40 * 200 * hands.length, "skipped " + skipped);
+        for (int i = 0; i < hands.length; i++) {
+            assertEquals(full.getWinProbability(i), pruned.getWinProbability(i));
+            assertEquals(full.getSplitProbability(i), pruned.getSplitProbability(i));
+            assertEquals(full.getEquity(i), pruned.getEquity(i));
+        }
+    }
+
+    @Test
+    void testNoPruningWithoutBoardStraightFlush() {
+        BoardState state = new BoardState(mask("Ts", "Js", "Qs", "Ks", "2s"));
+        long[] hands = {mask("9h", "8h"), mask("4d", "4c")};
+        state.evaluateAll(hands, new int[hands.length]);
+        assertEquals(0, state.getPrunedEvaluations());
+    }
+
+    @Test
+    void testRejectsPartialBoard() {
+        assertThrows(IllegalArgumentException.class, () -> new BoardState(mask("Ah", "Kh", "7c")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class CandidateComparisonTest {
+
+    @Test
+    void testCandidateEquitiesMatchExact() {
+        long[] candidates = {mask("Ah", "Kh"), mask("Qc", "Qd"), mask("7s", "6s")};
+        long[] opponents = {mask("Jc", "Jh"), mask("Ac", "Td")};
+        CandidateComparison.Estimate estimate = new CandidateComparison(candidates, opponents, 0L, 0L)
+            .run(60_000, new SplittableRandom(1));
+
+        for (int c = 0; c < candidates.length; c++) {
+            double exact = new ExactEnumerator()
+                .enumerate(new long[]{candidates[c], opponents[0], opponents[1]}, 0L, 0L).getEquity(0);
+            double error = Math.abs(estimate.getEquity(c) - exact);
+            assertTrue(error <= 5 * estimate.getEquityStandardError(c), "candidate " + c + " off by " + error);
+            assertTrue(estimate.getTotalHands(c) < estimate.getTotalBoards());
+        }
+    }
+
+    @Test
+    void testPairedDifferenceIsTighterForSimilarHands() {
+        long[] candidates = {mask("Ah", "Kh"), mask("Ah", "Kd")};
+        long[] opponents = {mask("Jc", "Jh")};
+        long board = mask("Ks", "9h", "4d");
+        CandidateComparison.Estimate estimate = new CandidateComparison(candidates, opponents, board, 0L)
+            .run(64_000, new SplittableRandom(2));
+
+        double paired = estimate.getEquityDifferenceStandardError(0, 1);
+        assertTrue(paired > 0);
+        assertTrue(paired < 0.7 * estimate.getIndependentDifferenceStandardError(0, 1), "paired error " + paired);
+
+        SimulationResult suited = new ExactEnumerator().enumerate(new long[]{candidates[0], opponents[0]}, board, 0L);
+        SimulationResult offsuit = new ExactEnumerator().enumerate(new long[]{candidates[1], opponents[0]}, board, 0L);
+        double exactDifference = suited.getEquity(0) - offsuit.getEquity(0);
+        assertEquals(exactDifference, estimate.getEquityDifference(0, 1), 5 * paired);
+    }
+
+    @Test
+    void testBlockedBoardsAreSkipped() {
+        long[] candidates = {mask("As", "Ks")};
+        long[] opponents = {mask("Qd", "Qc")};
+        CandidateComparison.Estimate estimate = new CandidateComparison(candidates, opponents, mask("2c", "3d", "4h", "5s"), 0L)
+            .run(10_000, new SplittableRandom(3));
+        // The river is one of the candidate's two cards in 2 of 44 runouts
+        assertEquals(10_000 * 42.0 / 44, estimate.getTotalHands(0), 200);
+    }
+
+    @Test
+    void testRejectsCandidateOverlappingOpponent() {
+        long[] opponents = {mask("Ah", "Ad")};
+        assertThrows(IllegalArgumentException.class,
+            () -> new CandidateComparison(new long[]{mask("Ah", "Kh")}, opponents, 0L, 0L));
+    }
+}
@@ -0,0 +1,60 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class ControlVariateEstimatorTest {
+
+    @Test
+    void testHeadsUpEstimateMatchesExactEquity() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc")};
+        SimulationResult exact = new ExactEnumerator().enumerate(hands, 0L, 0L);
+        ControlVariateEstimator.Estimate estimate = new ControlVariateEstimator(hands, 0L)
+            .run(200_000, new SplittableRandom(1));
+
+        for (int i = 0; i < hands.length; i++) {
+            double error = Math.abs(estimate.getEquity(i) - exact.getEquity(i));
+            assertTrue(error <= 5 * estimate.getEquityStandardError(i), "player " + i + " off by " + error);
+            assertTrue(estimate.getVarianceReduction(i) > 1, "reduction " + estimate.getVarianceReduction(i));
+            assertTrue(estimate.getEquityStandardError(i) < estimate.getPlainEquityStandardError(i));
+        }
+    }
+
+    @Test
+    void testMultiwayWithDeadCards() {
+        long[] hands = {mask("As", "Qs"), mask("Kd", "Kc"), mask("8h", "7h")};
+        long dead = mask("2c", "3d");
+        SimulationResult exact = new ExactEnumerator().enumerate(hands, 0L, dead);
+        ControlVariateEstimator.Estimate estimate = new ControlVariateEstimator(hands, dead)
+            .run(100_000, new SplittableRandom(2));
+
+        for (int i = 0; i < hands.length; i++) {
+            double error = Math.abs(estimate.getEquity(i) - exact.getEquity(i));
+            assertTrue(error <= 5 * estimate.getEquityStandardError(i), "player " + i + " off by " + error);
+        }
+    }
+
+    @Test
+    void testSpeedupIncludesControlCost() {
+        long[] hands = {mask("Jc", "Jd"), mask("Ac", "5s")};
+        ControlVariateEstimator.Estimate estimate = new ControlVariateEstimator(hands, 0L)
+            .run(20_000, new SplittableRandom(3));
+        assertTrue(estimate.getPlainNanos() > 0);
+        assertTrue(estimate.getControlNanos() > 0);
+        double timeShare = (double) estimate.getPlainNanos()
+            / (estimate.getPlainNanos() + estimate.getControlNanos());
+        assertEquals(estimate.getVarianceReduction(0) * timeShare, estimate.getSpeedup(0), 1e-9);
+        assertTrue(estimate.getSpeedup(0) < estimate.getVarianceReduction(0));
+    }
+
+    @Test
+    void testRejectsNonPositiveSamples() {
+        long[] hands = {mask("Ah", "Ad"), mask("7c", "2d")};
+        ControlVariateEstimator estimator = new ControlVariateEstimator(hands, 0L);
+        assertThrows(IllegalArgumentException.class, () -> estimator.run(0, new SplittableRandom(4)));
+        assertThrows(IllegalArgumentException.class, () -> estimator.run(-1, new SplittableRandom(4)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EquityPlannerTest {
+
+    @Test
+    void testEstimateExactWork() {
+        // Heads-up preflop: 48C5 boards, two evaluations each
+        assertEquals(2L * 1712304, EquityPlanner.estimateExactWork(2, 48, 0, 1));
+        // Heads-up on the flop and turn
+        assertEquals(2L * 990, EquityPlanner.estimateExactWork(2, 45, 3, 1));
+        assertEquals(2L * 44, EquityPlanner.estimateExactWork(2, 44, 4, 1));
+        assertEquals(3L, EquityPlanner.estimateExactWork(3, 41, 5, 1));
+        assertEquals(Long.MAX_VALUE, EquityPlanner.estimateExactWork(9, 34, 0, Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    void testKnownHandsAreEnumeratedByDefault() {
+        EquityPlanner planner = new EquityPlanner();
+        long[] headsUp = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        assertEquals(EquityPlanner.Engine.EXACT, planner.choose(headsUp, 0L, 0L));
+        assertEquals(EquityPlanner.Engine.EXACT, planner.choose(headsUp, mask("2c", "7d", "9h", "Js"), 0L));
+    }
+
+    @Test
+    void testBudgetSelectsMonteCarlo() {
+        EquityPlanner planner = new EquityPlanner(100_000);
+        long[] headsUp = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        assertEquals(EquityPlanner.Engine.MONTE_CARLO, planner.choose(headsUp, 0L, 0L));
+        assertEquals(EquityPlanner.Engine.EXACT, planner.choose(headsUp, mask("2c", "7d", "9h"), 0L));
+        // A range spot multiplies the work by its hole-card assignments
+        assertEquals(EquityPlanner.Engine.MONTE_CARLO, planner.choose(2, 45, 3, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new EquityPlanner(-1));
+    }
+}
@@ -0,0 +1,168 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExactEnumeratorTest {
+    private final ExactEnumerator enumerator = new ExactEnumerator();
+
+    // Sequential reference: every 5-card board over the live cards, evaluated directly
+    private SimulationResult bruteForce(long[] hands, long board, long dead) {
+        long used = board | dead;
+        for (long hand : hands) {
+            used |= hand;
+        }
+        SimulationResult result = new SimulationResult(hands.length);
+        int[] strengths = new int[hands.length];
+        for (int c1 = 0; c1 < 52; c1++) {
+            for (int c2 = c1 + 1; c2 < 52; c2++) {
+                for (int c3 = c2 + 1; c3 < 52; c3++) {
+                    for (int c4 = c3 + 1; c4 < 52; c4++) {
+                        for (int c5 = c4 + 1; c5 < 52; c5++) {
+                            long full = 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4 | 1L << c5;
+                            if ((full & board) != board || (full & ~board & used) != 0) {
+                                continue;
+                            }
+                            for (int p = 0; p < hands.length; p++) {
+                                strengths[p] = BitHandEvaluator.evaluate(hands[p] | full);
+                            }
+                            result.recordShowdown(strengths, hands.length, 1);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void assertSameCounts(SimulationResult expected, SimulationResult actual) {
+        assertEquals(expected.getTotalHands(), actual.getTotalHands());
+        for (int p = 0; p < expected.getNumPlayers(); p++) {
+            assertEquals(expected.getWins(p), actual.getWins(p));
+            assertEquals(expected.getSplits(p), actual.getSplits(p));
+            assertEquals(expected.getLosses(p), actual.getLosses(p));
+            assertEquals(expected.getEquity(p), actual.getEquity(p));
+        }
+    }
+
+    @Test
+    void testPreflopAcesVersusKings() {
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        SimulationResult result = enumerator.enumerate(hands, 0L, 0L);
+
+        assertEquals(1712304, result.getTotalHands());
+        assertEquals(1388072, result.getWins(0));
+        assertEquals(317694, result.getWins(1));
+        assertEquals(6538, result.getSplits(0));
+        assertEquals(1.0, result.getEquity(0) + result.getEquity(1), 1e-12);
+        assertSameCounts(bruteForce(hands, 0L, 0L), result);
+    }
+
+    @Test
+    void testDeadCardsReduceBoards() {
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        SimulationResult result = enumerator.enumerate(hands, 0L, mask("2c", "3c"));
+        assertEquals(1370754, result.getTotalHands());
+    }
+
+    @Test
+    void testMultiwayFlopWithDeadCardMatchesBruteForce() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc"), mask("7d", "6d")};
+        long board = mask("Qh", "Jh", "2d");
+        long dead = mask("3c");
+        SimulationResult result = enumerator.enumerate(hands, board, dead);
+
+        assertEquals(ExactEnumerator.countBoards(42, 3), result.getTotalHands());
+        assertSameCounts(bruteForce(hands, board, dead), result);
+    }
+
+    @Test
+    void testIncrementalEnumerationMatchesBruteForce() {
+        // Split-heavy hands exercise the reuse of winners across boards with equal ranks
+        ExactEnumerator full = new ExactEnumerator(ForkJoinPool.commonPool(), false);
+        long[] hands = {mask("Ac", "Kd"), mask("As", "Kh"), mask("7c", "7d"), mask("5h", "4h")};
+        long dead = mask("9s");
+        SimulationResult result = full.enumerate(hands, 0L, dead);
+
+        assertEquals(ExactEnumerator.countBoards(43, 0), result.getTotalHands());
+        assertSameCounts(bruteForce(hands, 0L, dead), result);
+        assertTrue(result.getSplits(0) > 0);
+    }
+
+    @Test
+    void testRiverIsSingleBoard() {
+        long[] hands = {mask("As", "Ks"), mask("Ad", "Kd"), mask("2c", "2h")};
+        SimulationResult result = enumerator.enumerate(hands, mask("Ah", "Kc", "7s", "8d", "9c"), 0L);
+        assertEquals(1, result.getTotalHands());
+        assertEquals(1, result.getSplits(0));
+        assertEquals(1, result.getSplits(1));
+        assertEquals(1, result.getLosses(2));
+        assertEquals(0.5, result.getEquity(0));
+    }
+
+    @Test
+    void testSymmetryGroup() {
+        // Clubs/diamonds and hearts/spades may each be swapped
+        assertEquals(3, ExactEnumerator.symmetryGroup(
+            new long[]{mask("Ac", "Ad"), mask("Kh", "Ks")}, 0L, 0L).size());
+        // Only spades/clubs may be swapped
+        assertEquals(1, ExactEnumerator.symmetryGroup(
+            new long[]{mask("Ah", "Kh"), mask("Qs", "Qc")}, 0L, 0L).size());
+        assertEquals(0, ExactEnumerator.symmetryGroup(
+            new long[]{mask("Ah", "Kd"), mask("7c", "2s")}, 0L, 0L).size());
+        // A dead club leaves only hearts/spades
+        assertEquals(1, ExactEnumerator.symmetryGroup(
+            new long[]{mask("Ac", "Ad"), mask("Kh", "Ks")}, 0L, mask("2c")).size());
+    }
+
+    @Test
+    void testSuitIsomorphismMatchesFullEnumeration() {
+        ExactEnumerator full = new ExactEnumerator(ForkJoinPool.commonPool(), false);
+        ExactEnumerator reduced = new ExactEnumerator(ForkJoinPool.commonPool(), true);
+        long[][][] scenarios = {
+            {{mask("Ac", "Ad"), mask("Kh", "Ks")}, {0L, 0L}},
+            {{mask("Ah", "Kh"), mask("Qs", "Qc")}, {0L, 0L}},
+            {{mask("As", "Ks"), mask("Ah", "Kh")}, {0L, 0L}},
+            {{mask("7c", "7d"), mask("8c", "8d"), mask("9h", "9s")}, {0L, 0L}},
+            {{mask("Ah", "Kh"), mask("Qs", "Qc"), mask("Jd", "Td")}, {0L, 0L}},
+            {{mask("Ac", "Ad"), mask("Kh", "Ks")}, {0L, mask("2c", "2d")}},
+            {{mask("Ah", "Kh"), mask("Qs", "Qc")}, {mask("2h", "7s", "7c"), 0L}},
+            {{mask("As", "Ad"), mask("Kh", "Kc")}, {mask("2s", "2d", "9h", "9c"), 0L}}
+        };
+        for (long[][] scenario : scenarios) {
+            long[] hands = scenario[0];
+            long board = scenario[1][0];
+            long dead = scenario[1][1];
+            long before = reduced.getEvaluatedBoards();
+            SimulationResult expected = full.enumerate(hands, board, dead);
+            SimulationResult actual = reduced.enumerate(hands, board, dead);
+            assertSameCounts(expected, actual);
+            assertTrue(reduced.getEvaluatedBoards() - before <= expected.getTotalHands());
+        }
+    }
+
+    @Test
+    void testSuitIsomorphismEvaluatesFewerBoards() {
+        ExactEnumerator reduced = new ExactEnumerator();
+        SimulationResult result = reduced.enumerate(new long[]{mask("Ac", "Ad"), mask("Kh", "Ks")}, 0L, 0L);
+        assertEquals(1712304, result.getTotalHands());
+        // One canonical board per orbit, either evaluated or reusing the previous winners
+        assertEquals(462264, reduced.getEvaluatedBoards() + reduced.getReusedBoards());
+        assertEquals(22909, reduced.getReusedBoards());
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+            () -> enumerator.enumerate(new long[]{mask("Ac", "Ad")}, 0L, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> enumerator.enumerate(new long[]{mask("Ac", "Ad"), mask("Ac", "Kd")}, 0L, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> enumerator.enumerate(new long[]{mask("Ac", "Ad"), mask("Kc", "Kd")}, mask("2c", "3c"), 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> enumerator.enumerate(new long[]{mask("Ac", "Ad"), mask("Kc", "Kd")}, 0L, mask("Ad")));
+    }
+}
@@ -0,0 +1,46 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FiveCardLookupTest {
+
+    @Test
+    void testIndexBounds() {
+        assertEquals(0, FiveCardLookup.index(0x1FL));
+        assertEquals(FiveCardLookup.HAND_COUNT - 1, FiveCardLookup.index(0x1FL << 47));
+    }
+
+    @Test
+    void testKnownHands() {
+        int royal = FiveCardLookup.evaluate(mask("As", "Ks", "Qs", "Js", "Ts"));
+        assertEquals(BitHandEvaluator.MAX_STRENGTH, royal);
+        int wheel = FiveCardLookup.evaluate(mask("Ah", "2c", "3d", "4s", "5h"));
+        assertEquals(HandRanking.Type.STRAIGHT, BitHandEvaluator.category(wheel));
+    }
+
+    @Test
+    void testAllFiveCardHandsMatchDirectEvaluator() {
+        boolean[] seen = new boolean[FiveCardLookup.HAND_COUNT];
+        long mismatches = 0;
+        for (int c1 = 0; c1 < 52; c1++) {
+            for (int c2 = c1 + 1; c2 < 52; c2++) {
+                for (int c3 = c2 + 1; c3 < 52; c3++) {
+                    for (int c4 = c3 + 1; c4 < 52; c4++) {
+                        for (int c5 = c4 + 1; c5 < 52; c5++) {
+                            long hand = 1L << c1 | 1L << c2 | 1L << c3 | 1L << c4 | 1L << c5;
+                            int index = FiveCardLookup.index(hand);
+                            assertFalse(seen[index]);
+                            seen[index] = true;
+                            if (FiveCardLookup.evaluate(hand) != BitHandEvaluator.evaluate(hand)) {
+                                mismatches++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(0, mismatches);
+    }
+}
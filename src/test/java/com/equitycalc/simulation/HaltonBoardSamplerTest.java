@@ -0,0 +1,53 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Deck;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class HaltonBoardSamplerTest {
+
+    @Test
+    void testRadicalInverseIsStratified() {
+        HaltonBoardSampler sampler = new HaltonBoardSampler(new SplittableRandom(1));
+        // Any 2^k consecutive base-2 points starting at a multiple of 2^k hit every 1/2^k cell once
+        boolean[] cells = new boolean[64];
+        for (long i = 64; i < 128; i++) {
+            double u = sampler.radicalInverse(i, 0);
+            assertTrue(u >= 0 && u < 1);
+            int cell = (int) (u * 64);
+            assertFalse(cells[cell]);
+            cells[cell] = true;
+        }
+    }
+
+    @Test
+    void testBoardsAreDistinctLiveCards() {
+        HaltonBoardSampler sampler = new HaltonBoardSampler(new SplittableRandom(2));
+        long live = Deck.FULL_DECK_MASK & ~mask("Ac", "Ad", "Kh", "Ks");
+        for (int n = 0; n < 10_000; n++) {
+            long board = sampler.nextBoard(live, 5);
+            assertEquals(5, Long.bitCount(board));
+            assertEquals(0, board & ~live);
+        }
+    }
+
+    @Test
+    void testHaltonEquityConverges() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc")};
+        double exact = new ExactEnumerator().enumerate(hands, 0L, 0L).getEquity(0);
+        long live = Deck.FULL_DECK_MASK & ~hands[0] & ~hands[1];
+        BoardSampler sampler = new HaltonBoardSampler(new SplittableRandom(3));
+        SimulationResult result = new SimulationResult(2);
+        int[] strengths = new int[2];
+        for (int n = 0; n < 64_000; n++) {
+            long board = sampler.nextBoard(live, 5);
+            strengths[0] = SevenCardLookup.evaluate(hands[0] | board);
+            strengths[1] = SevenCardLookup.evaluate(hands[1] | board);
+            result.recordShowdown(strengths, 2, 1);
+        }
+        assertEquals(exact, result.getEquity(0), 0.005);
+    }
+}
@@ -0,0 +1,82 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Deck;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class ImportanceSamplerTest {
+
+    // Exact probability that player 0 wins outright with a flush, over every turn and river
+    private double bruteForceFlushWin(long[] hands, long board) {
+        long live = Deck.FULL_DECK_MASK & ~board & ~hands[0] & ~hands[1];
+        long wins = 0;
+        long boards = 0;
+        for (long a = live; a != 0; a &= a - 1) {
+            for (long b = a & (a - 1); b != 0; b &= b - 1) {
+                long full = board | Long.lowestOneBit(a) | Long.lowestOneBit(b);
+                int hero = SevenCardLookup.evaluate(hands[0] | full);
+                int villain = SevenCardLookup.evaluate(hands[1] | full);
+                if (hero > villain && BitHandEvaluator.category(hero) == HandRanking.Type.FLUSH) {
+                    wins++;
+                }
+                boards++;
+            }
+        }
+        return (double) wins / boards;
+    }
+
+    @Test
+    void testRunnerRunnerEstimatesAreUnbiased() {
+        long[] hands = {mask("9h", "8h"), mask("Ac", "Ad")};
+        long board = mask("Ah", "7c", "2d");
+        long focus = ImportanceSampler.suitCards(Card.Suit.HEARTS)
+            | ImportanceSampler.rankCards(Card.Rank.SIX) | ImportanceSampler.rankCards(Card.Rank.TEN);
+        SimulationResult exact = new ExactEnumerator().enumerate(hands, board, 0L);
+        double exactFlushWin = bruteForceFlushWin(hands, board);
+
+        WeightedResult result = new ImportanceSampler(hands, board, 0L, focus, 4)
+            .run(100_000, new SplittableRandom(1));
+
+        double winError = Math.abs(result.getWinProbability(0) - exact.getWinProbability(0));
+        assertTrue(winError <= 5 * result.getWinStandardError(0), "win off by " + winError);
+        double equityError = Math.abs(result.getEquity(1) - exact.getEquity(1));
+        assertTrue(equityError <= 5 * result.getEquityStandardError(1), "equity off by " + equityError);
+        assertEquals(exactFlushWin, result.getCategoryWinProbability(0, HandRanking.Type.FLUSH), 0.003);
+        assertEquals(1.0, result.getMeanWeight(), 0.02);
+    }
+
+    @Test
+    void testBoostReducesTailError() {
+        long[] hands = {mask("9h", "8h"), mask("Ac", "Ad")};
+        long board = mask("Ah", "7c", "2d");
+        long focus = ImportanceSampler.suitCards(Card.Suit.HEARTS)
+            | ImportanceSampler.rankCards(Card.Rank.FIVE) | ImportanceSampler.rankCards(Card.Rank.SIX)
+            | ImportanceSampler.rankCards(Card.Rank.TEN) | ImportanceSampler.rankCards(Card.Rank.JACK);
+
+        WeightedResult plain = new ImportanceSampler(hands, board, 0L, focus, 1)
+            .run(50_000, new SplittableRandom(2));
+        WeightedResult boosted = new ImportanceSampler(hands, board, 0L, focus, 4)
+            .run(50_000, new SplittableRandom(2));
+        assertTrue(boosted.getWinStandardError(0) < plain.getWinStandardError(0));
+    }
+
+    @Test
+    void testUnitBoostIsPlainSampling() {
+        long[] hands = {mask("As", "Ks"), mask("Qd", "Qc"), mask("Jh", "Th")};
+        WeightedResult result = new ImportanceSampler(hands, 0L, 0L, ImportanceSampler.suitCards(Card.Suit.SPADES), 1)
+            .run(1_000, new SplittableRandom(3));
+        assertEquals(1.0, result.getMeanWeight(), 1e-12);
+        assertEquals(1_000, result.getEffectiveSampleSize(), 1e-6);
+        assertEquals(1.0, result.getEquity(0) + result.getEquity(1) + result.getEquity(2), 1e-9);
+    }
+
+    @Test
+    void testRejectsBoostBelowOne() {
+        long[] hands = {mask("As", "Ks"), mask("Qd", "Qc")};
+        assertThrows(IllegalArgumentException.class, () -> new ImportanceSampler(hands, 0L, 0L, 0L, 0.5));
+    }
+}
@@ -0,0 +1,172 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.range.HandRange;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class IncrementalRangeMatchupTest {
+
+    private void assertMatchesRecompute(IncrementalRangeMatchup incremental, RangeMatchup.Result full) {
+        assertEquals(full.getEquity(), incremental.getEquity(), 1e-9);
+        assertEquals(full.getWinProbability(), incremental.getWinProbability(), 1e-9);
+        assertEquals(full.getSplitProbability(), incremental.getSplitProbability(), 1e-9);
+        for (int combo = 0; combo < HandRange.COMBOS; combo++) {
+            double expected = full.getEquity(combo);
+            if (Double.isNaN(expected)) {
+                assertTrue(Double.isNaN(incremental.getEquity(combo)), "combo " + combo);
+            } else {
+                assertEquals(expected, incremental.getEquity(combo), 1e-9, "combo " + combo);
+            }
+        }
+    }
+
+    @Test
+    void testInitialStateMatchesEnumeration() {
+        HandRange hero = HandRange.parse("QQ+,AK");
+        HandRange villain = HandRange.parse("JJ+,AQs+,KQs");
+        long board = mask("Ah", "7c", "2d", "Ts");
+        IncrementalRangeMatchup incremental = new IncrementalRangeMatchup(hero, villain, board, 0L);
+        assertEquals(48, incremental.getRunouts());
+        assertEquals(0, incremental.getRowsBuilt());
+        assertMatchesRecompute(incremental, new RangeMatchup(hero, villain, board, 0L).enumerate());
+    }
+
+    @Test
+    void testHeroEditsMatchRecompute() {
+        HandRange villain = HandRange.parse("88+,ATs+,KQo");
+        long board = mask("Kd", "9s", "4c", "4h");
+        IncrementalRangeMatchup incremental =
+            new IncrementalRangeMatchup(HandRange.parse("TT+,AQ+"), villain, board, 0L);
+
+        // Added, removed and reweighted combos
+        HandRange edited = HandRange.parse("99+,AK,KQs,QQ:0.5");
+        incremental.setHeroRange(edited);
+        assertMatchesRecompute(incremental, new RangeMatchup(edited, villain, board, 0L).enumerate());
+    }
+
+    @Test
+    void testVillainEditsMatchRecompute() {
+        HandRange hero = HandRange.parse("JJ+,AJs+,KQs");
+        long board = mask("Qs", "8h", "5d", "3c");
+        IncrementalRangeMatchup incremental =
+            new IncrementalRangeMatchup(hero, HandRange.parse("22+,A2s+"), board, 0L);
+
+        HandRange edited = HandRange.parse("55+,A5s+:0.25,KJo,QhJh");
+        incremental.setVillainRange(edited);
+        assertMatchesRecompute(incremental, new RangeMatchup(hero, edited, board, 0L).enumerate());
+    }
+
+    @Test
+    void testInterleavedEditsOnTheFlop() {
+        long board = mask("Jc", "Td", "3s");
+        long dead = mask("2h");
+        HandRange hero = HandRange.parse("AA,KK,AKs,QJs");
+        HandRange villain = HandRange.parse("JJ,TT,33,KQs,AQo");
+        IncrementalRangeMatchup incremental = new IncrementalRangeMatchup(hero, villain, board, dead);
+
+        HandRange hero2 = HandRange.parse("AA,KK:0.5,KQs,QJs");
+        incremental.setHeroRange(hero2);
+        HandRange villain2 = HandRange.parse("JJ,33,KQs,AQo:0.75,98s");
+        incremental.setVillainRange(villain2);
+        HandRange hero3 = HandRange.parse("AA,KQs,QJs,T9s");
+        incremental.setHeroRange(hero3);
+        assertMatchesRecompute(incremental, new RangeMatchup(hero3, villain2, board, dead).enumerate());
+    }
+
+    // Random single-combo edits, mirrored as weighted tokens appended to each range's text
+    private HandRange[] editRandomly(IncrementalRangeMatchup incremental, HandRange hero, HandRange villain,
+                                     long board, int edits, SplittableRandom random) {
+        StringBuilder heroText = new StringBuilder(hero.getText());
+        StringBuilder villainText = new StringBuilder(villain.getText());
+        for (int n = 0; n < edits; n++) {
+            int combo;
+            do {
+                combo = random.nextInt(HandRange.COMBOS);
+            } while ((HandRange.comboCards(combo) & board) != 0);
+            double weight = random.nextInt(5) / 4.0;
+            String token = "," + comboText(combo) + ":" + weight;
+            if (random.nextBoolean()) {
+                incremental.setHeroWeight(combo, weight);
+                heroText.append(token);
+            } else {
+                incremental.setVillainWeight(combo, weight);
+                villainText.append(token);
+            }
+        }
+        return new HandRange[]{HandRange.parse(heroText.toString()), HandRange.parse(villainText.toString())};
+    }
+
+    private String comboText(int combo) {
+        long cards = HandRange.comboCards(combo);
+        return Card.fromBits(Long.numberOfTrailingZeros(cards)).toString()
+            + Card.fromBits(63 - Long.numberOfLeadingZeros(cards));
+    }
+
+    @Test
+    void testRandomSingleComboEditsMatchRecompute() {
+        long board = mask("9c", "6d", "2s", "Kh");
+        HandRange hero = HandRange.parse("TT+,AQ+,KJs+");
+        HandRange villain = HandRange.parse("66+,AT+,KQ,QJs");
+        IncrementalRangeMatchup incremental = new IncrementalRangeMatchup(hero, villain, board, 0L);
+
+        HandRange[] edited = editRandomly(incremental, hero, villain, board, 40, new SplittableRandom(3));
+        assertMatchesRecompute(incremental, new RangeMatchup(edited[0], edited[1], board, 0L).enumerate());
+    }
+
+    @Test
+    void testSampledPreflopRunoutsMatchRecompute() {
+        HandRange hero = HandRange.parse("77+,ATs+,KQs");
+        HandRange villain = HandRange.parse("22+,A2s+,KTs+,QJs");
+        long[] runouts = new RangeMatchup(hero, villain, 0L, 0L).dealRunouts(300, new SplittableRandom(11));
+        IncrementalRangeMatchup incremental = new IncrementalRangeMatchup(hero, villain, 0L, 0L, runouts);
+        assertEquals(300, incremental.getRunouts());
+
+        HandRange[] edited = editRandomly(incremental, hero, villain, 0L, 40, new SplittableRandom(5));
+        assertMatchesRecompute(incremental, new RangeMatchup(edited[0], edited[1], 0L, 0L).run(runouts));
+    }
+
+    @Test
+    void testRowsAreBuiltOncePerEditedCombo() {
+        HandRange hero = HandRange.parse("AA,KK");
+        HandRange villain = HandRange.parse("QQ,AKs");
+        long board = mask("7h", "6h", "5c", "2d");
+        IncrementalRangeMatchup incremental = new IncrementalRangeMatchup(hero, villain, board, 0L);
+        double before = incremental.getEquity();
+
+        int combo = HandRange.comboIndex(mask("Jh", "Th"));
+        incremental.setVillainWeight(combo, 1);
+        incremental.setVillainWeight(combo, 0.5);
+        incremental.setVillainWeight(combo, 0);
+        assertEquals(1, incremental.getRowsBuilt());
+        assertEquals(before, incremental.getEquity(), 1e-12);
+
+        // Reweighting a hero combo already in the range needs no row
+        incremental.setHeroWeight(HandRange.comboIndex(mask("As", "Ad")), 0.5);
+        assertEquals(1, incremental.getRowsBuilt());
+    }
+
+    @Test
+    void testEnumerationBeforeTheFlopIsRejected() {
+        HandRange hero = HandRange.parse("QQ+");
+        HandRange villain = HandRange.parse("AK");
+        assertThrows(IllegalArgumentException.class, () -> new IncrementalRangeMatchup(hero, villain, 0L, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> new IncrementalRangeMatchup(hero, villain, mask("2c", "7d"), 0L));
+    }
+
+    @Test
+    void testInvalidEditsAreRejected() {
+        long board = mask("Ah", "Kh", "Qh");
+        IncrementalRangeMatchup incremental =
+            new IncrementalRangeMatchup(HandRange.parse("JJ+"), HandRange.parse("TT+"), board, 0L);
+        int onBoard = HandRange.comboIndex(mask("Ah", "2c"));
+        int live = HandRange.comboIndex(mask("2c", "3c"));
+        assertThrows(IllegalArgumentException.class, () -> incremental.setHeroWeight(onBoard, 1));
+        assertThrows(IllegalArgumentException.class, () -> incremental.setVillainWeight(live, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> incremental.setHeroWeight(HandRange.COMBOS, 1));
+    }
+}
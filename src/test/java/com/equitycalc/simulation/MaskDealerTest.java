@@ -0,0 +1,57 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Deck;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class MaskDealerTest {
+
+    @Test
+    void testSelectNthSetBit() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 1000; trial++) {
+            long mask = random.nextLong() & Deck.FULL_DECK_MASK;
+            long rest = mask;
+            for (int n = 0; rest != 0; n++) {
+                assertEquals(Long.numberOfTrailingZeros(rest), MaskDealer.selectNthSetBit(mask, n));
+                rest &= rest - 1;
+            }
+        }
+    }
+
+    @Test
+    void testDealTakesCardsFromLiveMask() {
+        SplittableRandom random = new SplittableRandom(2);
+        long live = Deck.FULL_DECK_MASK & ~0xF000F000FL;
+        for (int trial = 0; trial < 1000; trial++) {
+            long board = MaskDealer.deal(live, 5, random);
+            assertEquals(5, Long.bitCount(board));
+            assertEquals(0, board & ~live);
+        }
+        assertEquals(live, MaskDealer.deal(live, Long.bitCount(live), random));
+    }
+
+    @Test
+    void testDealIsUniform() {
+        SplittableRandom random = new SplittableRandom(3);
+        long live = Deck.FULL_DECK_MASK & ~0xFL;
+        int deals = 200_000;
+        int[] counts = new int[52];
+        for (int trial = 0; trial < deals; trial++) {
+            for (long board = MaskDealer.deal(live, 5, random); board != 0; board &= board - 1) {
+                counts[Long.numberOfTrailingZeros(board)]++;
+            }
+        }
+        double expected = deals * 5.0 / 48;
+        for (int card = 0; card < 52; card++) {
+            if (card < 4) {
+                assertEquals(0, counts[card]);
+            } else {
+                assertEquals(expected, counts[card], expected * 0.03);
+            }
+        }
+    }
+}
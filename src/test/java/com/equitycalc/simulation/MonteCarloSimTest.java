@@ -0,0 +1,67 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Player;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MonteCarloSimTest {
+
+    private static final String[][] TEN_HANDS = {
+        {"Ah", "Kh"}, {"Qs", "Qc"}, {"Jd", "Td"}, {"7c", "6c"}, {"As", "2d"},
+        {"9h", "9d"}, {"Kc", "Qd"}, {"8s", "8h"}, {"5d", "4d"}, {"Jh", "Tc"}
+    };
+
+    private List<Player> players(int count) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            players.add(new Player(Arrays.asList(new Card(TEN_HANDS[i][0]), new Card(TEN_HANDS[i][1]))));
+        }
+        return players;
+    }
+
+    @Test
+    void testTenHandedSimulation() throws Exception {
+        List<Player> players = players(10);
+        SimulationResult result = new MonteCarloSim(20_000).runSimulation(players);
+
+        assertEquals(20_000, result.getTotalHands());
+        double equity = 0;
+        for (int i = 0; i < players.size(); i++) {
+            equity += result.getEquity(i);
+            assertEquals(1.0, result.getWinProbability(i) + result.getSplitProbability(i)
+                + result.getLossProbability(i), 1e-9);
+        }
+        // Split pots are credited in shares, so equities always sum to one
+        assertEquals(1.0, equity, 1e-9);
+    }
+
+    @Test
+    void testNineHandedMatchesExactEquity() throws Exception {
+        List<Player> players = players(9);
+        long[] holeCards = new long[players.size()];
+        for (int i = 0; i < holeCards.length; i++) {
+            for (Card card : players.get(i).getHoleCards()) {
+                holeCards[i] = Card.addCardToBitMask(holeCards[i], card);
+            }
+        }
+        SimulationResult exact = new ExactEnumerator().enumerate(holeCards, 0L, 0L);
+        SimulationResult result = new MonteCarloSim(200_000).runParallelSimulation(players, 9L, null);
+
+        for (int i = 0; i < holeCards.length; i++) {
+            double error = Math.abs(result.getEquity(i) - exact.getEquity(i));
+            assertTrue(error <= 5 * result.getEquityStandardError(i), "player " + i + " off by " + error);
+        }
+    }
+
+    @Test
+    void testRejectsElevenPlayers() {
+        List<Player> players = players(10);
+        players.add(new Player(Arrays.asList(new Card("2s"), new Card("3s"))));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSim(1_000).runSimulation(players));
+    }
+}
@@ -0,0 +1,84 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelSimulatorTest {
+
+    private void assertSameCounts(SimulationResult expected, SimulationResult actual) {
+        assertEquals(expected.getTotalHands(), actual.getTotalHands());
+        for (int i = 0; i < expected.getNumPlayers(); i++) {
+            assertEquals(expected.getWins(i), actual.getWins(i));
+            assertEquals(expected.getSplits(i), actual.getSplits(i));
+            assertEquals(expected.getLosses(i), actual.getLosses(i));
+            assertEquals(expected.getEquity(i), actual.getEquity(i));
+            assertEquals(expected.getEquityVariance(i), actual.getEquityVariance(i));
+        }
+    }
+
+    @Test
+    void testResultsDoNotDependOnPoolSize() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc"), mask("Jd", "Td")};
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(4);
+        try {
+            SimulationResult serial = new ParallelSimulator(single, 5_000).run(hands, 0L, 0L, 123_457, 42L);
+            SimulationResult parallel = new ParallelSimulator(wide, 5_000).run(hands, 0L, 0L, 123_457, 42L);
+            assertEquals(123_457, serial.getTotalHands());
+            assertSameCounts(serial, parallel);
+
+            SimulationResult otherSeed = new ParallelSimulator(wide, 5_000).run(hands, 0L, 0L, 123_457, 43L);
+            assertNotEquals(serial.getWins(0), otherSeed.getWins(0));
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void testMatchesExactEquity() {
+        long[] hands = {mask("As", "Qs"), mask("Kd", "Kc"), mask("8h", "7h")};
+        long board = mask("Ks", "9h", "6s");
+        long dead = mask("2c");
+        SimulationResult exact = new ExactEnumerator().enumerate(hands, board, dead);
+        SimulationResult result = new ParallelSimulator().run(hands, board, dead, 200_000, 7L);
+
+        for (int i = 0; i < hands.length; i++) {
+            double error = Math.abs(result.getEquity(i) - exact.getEquity(i));
+            assertTrue(error <= 5 * result.getEquityStandardError(i), "player " + i + " off by " + error);
+        }
+    }
+
+    @Test
+    void testTargetStopsAtRoundBoundary() {
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        int chunkSize = 1_000;
+        PrecisionTarget target = new PrecisionTarget(0.005, 0.95);
+        SimulationResult first = new ParallelSimulator(ForkJoinPool.commonPool(), chunkSize)
+            .run(hands, 0L, 0L, 10_000_000, 11L, target);
+        SimulationResult second = new ParallelSimulator(ForkJoinPool.commonPool(), chunkSize)
+            .run(hands, 0L, 0L, 10_000_000, 11L, target);
+
+        assertTrue(target.isMet(first));
+        assertTrue(first.getTotalHands() < 10_000_000);
+        assertEquals(0, first.getTotalHands() % ((long) chunkSize * ParallelSimulator.ROUND_CHUNKS));
+        assertSameCounts(first, second);
+    }
+
+    @Test
+    void testChunkSeedsDiffer() {
+        assertNotEquals(ParallelSimulator.chunkSeed(1L, 0), ParallelSimulator.chunkSeed(1L, 1));
+        assertNotEquals(ParallelSimulator.chunkSeed(1L, 1), ParallelSimulator.chunkSeed(2L, 1));
+        assertEquals(ParallelSimulator.chunkSeed(5L, 3), ParallelSimulator.chunkSeed(5L, 3));
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSimulator(ForkJoinPool.commonPool(), 0));
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSimulator().run(hands, 0L, 0L, -1, 1L));
+    }
+}
@@ -0,0 +1,65 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import com.equitycalc.model.Player;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PrecisionTargetTest {
+
+    @Test
+    void testZScore() {
+        assertEquals(1.959964, PrecisionTarget.zScore(0.95), 1e-6);
+        assertEquals(2.575829, PrecisionTarget.zScore(0.99), 1e-6);
+        assertEquals(0.674490, PrecisionTarget.zScore(0.50), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> PrecisionTarget.zScore(1.0));
+    }
+
+    @Test
+    void testEquityVarianceCountsSplitShares() {
+        SimulationResult result = new SimulationResult(3);
+        // Player 0: wins once, splits two ways once, loses twice -> equities 1, 0.5, 0, 0
+        result.recordShowdown(new int[]{9, 1, 1}, 3, 1);
+        result.recordShowdown(new int[]{5, 5, 1}, 3, 1);
+        result.recordShowdown(new int[]{1, 5, 1}, 3, 1);
+        result.recordShowdown(new int[]{1, 1, 5}, 3, 1);
+
+        assertEquals(0.375, result.getEquity(0), 1e-12);
+        double expected = ((1 - 0.375) * (1 - 0.375) + (0.5 - 0.375) * (0.5 - 0.375)
+            + 2 * 0.375 * 0.375) / 3;
+        assertEquals(expected, result.getEquityVariance(0), 1e-12);
+        assertEquals(Math.sqrt(expected / 4), result.getEquityStandardError(0), 1e-12);
+    }
+
+    @Test
+    void testTargetIsMetOnlyAfterMinimumHands() {
+        PrecisionTarget target = new PrecisionTarget(0.5, 0.95);
+        SimulationResult result = new SimulationResult(2);
+        for (int i = 0; i < PrecisionTarget.MIN_HANDS - 1; i++) {
+            result.recordShowdown(new int[]{2, 1}, 2, 1);
+        }
+        assertFalse(target.isMet(result));
+        result.recordShowdown(new int[]{1, 2}, 2, 1);
+        assertTrue(target.isMet(result));
+    }
+
+    @Test
+    void testMonteCarloStopsAtTargetPrecision() throws Exception {
+        MonteCarloSim simulator = new MonteCarloSim(1_000_000);
+        List<Player> players = Arrays.asList(
+            new Player(Arrays.asList(new Card("Ac"), new Card("Ad"))),
+            new Player(Arrays.asList(new Card("Kh"), new Card("Ks"))));
+        PrecisionTarget target = new PrecisionTarget(0.005, 0.95);
+
+        SimulationResult result = simulator.runSimulation(players, target);
+
+        assertTrue(result.getTotalHands() < simulator.getNumSimulations());
+        for (int i = 0; i < 2; i++) {
+            assertTrue(result.getEquityHalfWidth(i, 0.95) <= 0.005);
+        }
+        assertEquals(0.8125, result.getEquity(0), 0.03);
+    }
+}
@@ -0,0 +1,25 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.range.HandRange;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreflopEquitiesTest {
+
+    @Test
+    void testRandomHandAgainstRandomHandIsEven() {
+        double sum = 0;
+        for (int combo = 0; combo < HandRange.COMBOS; combo++) {
+            sum += PreflopEquities.vsRandomHand(HandRange.comboCards(combo));
+        }
+        assertEquals(0.5, sum / HandRange.COMBOS, 1e-9);
+    }
+
+    @Test
+    void testKnownEquities() {
+        assertEquals(0.8520, PreflopEquities.vsRandomHand(mask("As", "Ah")), 1e-4);
+        assertEquals(0.6704, PreflopEquities.vsRandomHand(mask("Kd", "Ad")), 1e-4);
+        assertEquals(0.3458, PreflopEquities.vsRandomHand(mask("7c", "2h")), 1e-4);
+    }
+}
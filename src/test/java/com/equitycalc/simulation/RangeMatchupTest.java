@@ -0,0 +1,157 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Deck;
+import com.equitycalc.range.HandRange;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class RangeMatchupTest {
+
+    // Win, tie and matchup weight summed over every runout and consistent pair of combos
+    private double[] bruteForce(HandRange hero, HandRange villain, long board, long dead) {
+        double[] sums = new double[3];
+        addRunouts(hero, villain, Deck.FULL_DECK_MASK & ~board & ~dead, board, dead, sums);
+        return sums;
+    }
+
+    private void addRunouts(HandRange hero, HandRange villain, long rest, long cards, long dead, double[] sums) {
+        if (Long.bitCount(cards) == 5) {
+            for (int h : hero.combos()) {
+                long heroCards = HandRange.comboCards(h);
+                if ((heroCards & (cards | dead)) != 0) {
+                    continue;
+                }
+                for (int v : villain.combos()) {
+                    long villainCards = HandRange.comboCards(v);
+                    if ((villainCards & (cards | dead | heroCards)) != 0) {
+                        continue;
+                    }
+                    double weight = hero.getWeight(h) * villain.getWeight(v);
+                    int heroStrength = SevenCardLookup.evaluate(heroCards | cards);
+                    int villainStrength = SevenCardLookup.evaluate(villainCards | cards);
+                    sums[0] += heroStrength > villainStrength ? weight : 0;
+                    sums[1] += heroStrength == villainStrength ? weight : 0;
+                    sums[2] += weight;
+                }
+            }
+            return;
+        }
+        // Each runout once: later cards come from above the one just dealt
+        for (; rest != 0; rest &= rest - 1) {
+            long card = Long.lowestOneBit(rest);
+            addRunouts(hero, villain, rest & ~card, cards | card, dead, sums);
+        }
+    }
+
+    private void assertMatchesBruteForce(HandRange hero, HandRange villain, long board, long dead) {
+        double[] sums = bruteForce(hero, villain, board, dead);
+        RangeMatchup.Result result = new RangeMatchup(hero, villain, board, dead).enumerate();
+        assertEquals(sums[0] / sums[2], result.getWinProbability(), 1e-9);
+        assertEquals(sums[1] / sums[2], result.getSplitProbability(), 1e-9);
+        assertEquals((sums[0] + sums[1] / 2) / sums[2], result.getEquity(), 1e-9);
+    }
+
+    @Test
+    void testRiverMatchesBruteForce() {
+        long board = mask("Ah", "Kh", "7h", "7c", "2d");
+        assertMatchesBruteForce(HandRange.parse("22+,A2s+,KTs+,QJs,AJo+,KQo"),
+            HandRange.parse("77+,A5s+,K9s+,T9s,98s,ATo+,QcJc:0"), board, 0L);
+        assertMatchesBruteForce(HandRange.parse("AA,KK:0.5,AhQh,7s7d"), HandRange.parse("AK,QQ+,72:0.25"),
+            board, mask("Qs"));
+    }
+
+    @Test
+    void testTurnMatchesBruteForce() {
+        long board = mask("Js", "Ts", "4d", "3c");
+        assertMatchesBruteForce(HandRange.parse("QQ+,AKs,KQs,98s:0.5"), HandRange.parse("TT+,AJs+,KJs,JTs,55-33"),
+            board, 0L);
+    }
+
+    @Test
+    void testFlopMatchesBruteForce() {
+        long board = mask("9c", "8c", "2h");
+        assertMatchesBruteForce(HandRange.parse("AA,T9s,Ac2c"), HandRange.parse("99,KQs,JTs:0.5"), board, 0L);
+    }
+
+    @Test
+    void testSymmetricRangesSplitEvenly() {
+        HandRange range = HandRange.parse("TT+,AQs+,KQs");
+        RangeMatchup.Result result = new RangeMatchup(range, range, mask("Ts", "8d", "5c", "2h"), 0L).enumerate();
+        assertEquals(0.5, result.getEquity(), 1e-9);
+        assertEquals(48, result.getRunouts());
+    }
+
+    @Test
+    void testComboAndClassEquitiesFromOnePass() {
+        long board = mask("Qd", "9s", "4h", "3h");
+        HandRange hero = HandRange.parse("AA,KQs,T9o,5h4h:0.5");
+        HandRange villain = HandRange.parse("QQ+,AQs+,JTs,99:0.5");
+        RangeMatchup.Result result = new RangeMatchup(hero, villain, board, 0L).enumerate();
+        double[] vector = result.getEquityVector();
+
+        for (int combo : hero.combos()) {
+            HandRange single = HandRange.of(HandRange.comboCards(combo));
+            double alone = new RangeMatchup(single, villain, board, 0L).enumerate().getEquity();
+            assertEquals(alone, result.getEquity(combo), 1e-9);
+            assertEquals(alone, vector[combo], 1e-9);
+        }
+        int outside = HandRange.comboIndex(mask("2c", "2d"));
+        assertTrue(Double.isNaN(result.getEquity(outside)));
+
+        double[] classes = result.getClassEquities();
+        int ks = HandRange.handClass(HandRange.comboIndex(mask("Ks", "Qs")));
+        assertEquals(new RangeMatchup(HandRange.parse("KQs"), villain, board, 0L).enumerate().getEquity(),
+            classes[ks], 1e-9);
+        int aces = HandRange.handClass(HandRange.comboIndex(mask("As", "Ah")));
+        assertEquals(new RangeMatchup(HandRange.parse("AA"), villain, board, 0L).enumerate().getEquity(),
+            classes[aces], 1e-9);
+        assertTrue(Double.isNaN(classes[HandRange.handClass(outside)]));
+    }
+
+    @Test
+    void testSampledRunoutsConverge() {
+        long board = mask("Kc", "8h", "2s");
+        HandRange hero = HandRange.parse("22+,AJs+,KQo");
+        HandRange villain = HandRange.parse("TT+,AK,87s");
+        RangeMatchup matchup = new RangeMatchup(hero, villain, board, 0L);
+        assertEquals(49L * 48 / 2, matchup.countRunouts());
+        RangeMatchup.Result exact = matchup.enumerate();
+        RangeMatchup.Result sampled = matchup.sample(20_000, new SplittableRandom(13));
+        assertEquals(20_000, sampled.getRunouts());
+        assertEquals(exact.getEquity(), sampled.getEquity(), 0.005);
+        int aces = HandRange.comboIndex(mask("As", "Ad"));
+        assertEquals(exact.getEquity(aces), sampled.getEquity(aces), 0.02);
+    }
+
+    @Test
+    void testListedRunoutsMatchEnumeration() {
+        long board = mask("Qd", "Jd", "4s", "4c");
+        long dead = mask("9h");
+        HandRange hero = HandRange.parse("88+,AQ+");
+        HandRange villain = HandRange.parse("44+,KQs,JTs");
+        RangeMatchup matchup = new RangeMatchup(hero, villain, board, dead);
+        long[] runouts = matchup.listRunouts();
+        assertEquals(47, runouts.length);
+        RangeMatchup.Result listed = matchup.run(runouts);
+        RangeMatchup.Result exact = matchup.enumerate();
+        assertEquals(exact.getRunouts(), listed.getRunouts());
+        assertEquals(exact.getEquity(), listed.getEquity(), 1e-12);
+        int queens = HandRange.comboIndex(mask("Qs", "Qh"));
+        assertEquals(exact.getWinWeight(queens), listed.getWinWeight(queens), 1e-9);
+        assertEquals(0, listed.getWinWeight(HandRange.comboIndex(mask("7s", "2c"))));
+
+        // Runouts must complete the board from live cards
+        assertThrows(IllegalArgumentException.class, () -> matchup.run(new long[]{board | mask("9h")}));
+        assertThrows(IllegalArgumentException.class, () -> matchup.run(new long[]{board}));
+    }
+
+    @Test
+    void testRejectsDeadBoardCards() {
+        HandRange range = HandRange.parse("AA");
+        assertThrows(IllegalArgumentException.class,
+            () -> new RangeMatchup(range, range, mask("Ts", "8d", "5c"), mask("Ts")));
+    }
+}
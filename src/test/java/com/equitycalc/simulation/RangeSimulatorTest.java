@@ -0,0 +1,127 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.range.HandRange;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class RangeSimulatorTest {
+
+    // Weighted average of exact equities over every deal without shared cards
+    private double[] exactEquities(List<HandRange> ranges, long board) {
+        int players = ranges.size();
+        double[] equity = new double[players];
+        double[] total = new double[1];
+        addDeals(ranges, board, 0, new long[players], 1.0, equity, total, new ExactEnumerator());
+        for (int i = 0; i < players; i++) {
+            equity[i] /= total[0];
+        }
+        return equity;
+    }
+
+    private void addDeals(List<HandRange> ranges, long used, int player, long[] hands, double weight,
+                          double[] equity, double[] total, ExactEnumerator enumerator) {
+        if (player == hands.length) {
+            long board = used;
+            for (long hand : hands) {
+                board &= ~hand;
+            }
+            SimulationResult result = enumerator.enumerate(hands, board, 0L);
+            for (int i = 0; i < hands.length; i++) {
+                equity[i] += weight * result.getEquity(i);
+            }
+            total[0] += weight;
+            return;
+        }
+        HandRange range = ranges.get(player);
+        for (int combo : range.combos()) {
+            long hand = HandRange.comboCards(combo);
+            if ((hand & used) == 0) {
+                hands[player] = hand;
+                addDeals(ranges, used | hand, player + 1, hands, weight * range.getWeight(combo),
+                    equity, total, enumerator);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesExactOnOverlappingRanges() {
+        List<HandRange> ranges = List.of(HandRange.parse("AA,KK"), HandRange.parse("AA,KK"),
+            HandRange.parse("AKs,QQ"));
+        long board = mask("Qh", "7c", "2d");
+        double[] exact = exactEquities(ranges, board);
+
+        RangeSimulator simulator = new RangeSimulator(ranges, board, 0L);
+        SimulationResult result = simulator.run(400_000, new SplittableRandom(3));
+        for (int i = 0; i < ranges.size(); i++) {
+            assertEquals(exact[i], result.getEquity(i), 0.01, "player " + i);
+        }
+    }
+
+    @Test
+    void testMatchesExactWithWeights() {
+        List<HandRange> ranges = List.of(HandRange.parse("AA:0.2,KK,AKs:0.5"), HandRange.parse("QQ+,AK:0.3"));
+        long board = mask("Kh", "8c", "3d", "As");
+        double[] exact = exactEquities(ranges, board);
+
+        SimulationResult result = new RangeSimulator(ranges, board, 0L).run(400_000, new SplittableRandom(5));
+        assertEquals(exact[0], result.getEquity(0), 0.01);
+        assertEquals(exact[1], result.getEquity(1), 0.01);
+    }
+
+    @Test
+    void testBatchMeansErrorMatchesSpreadOfRuns() {
+        HandRange range = HandRange.parse("TT+");
+        List<HandRange> ranges = List.of(range, range, range, range, range, range, range, range, range);
+        int runs = 30;
+        double sum = 0;
+        double sumSquares = 0;
+        double reported = 0;
+        for (int r = 0; r < runs; r++) {
+            BatchMeansResult result = new RangeSimulator(ranges, 0L, 0L).run(20_000, new SplittableRandom(r + 11));
+            assertEquals(RangeSimulator.BATCHES, result.getBatches());
+            sum += result.getEquity(0);
+            sumSquares += result.getEquity(0) * result.getEquity(0);
+            reported += result.getEquityStandardError(0) / runs;
+        }
+        double mean = sum / runs;
+        double spread = Math.sqrt((sumSquares / runs - mean * mean) * runs / (runs - 1));
+        assertTrue(reported > 0.6 * spread && reported < 1.6 * spread, "reported " + reported + ", spread " + spread);
+    }
+
+    @Test
+    void testNarrowRangesDoNotCollapse() {
+        // Twenty cards for nine players: almost every independent draw collides
+        HandRange range = HandRange.parse("TT+");
+        List<HandRange> ranges = List.of(range, range, range, range, range, range, range, range, range);
+        RangeSimulator simulator = new RangeSimulator(ranges, 0L, 0L);
+        SimulationResult result = simulator.run(200_000, new SplittableRandom(7));
+
+        long held = 0;
+        for (long hand : simulator.getHoleCards()) {
+            assertEquals(0, held & hand);
+            held |= hand;
+        }
+        double sum = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            // Identical ranges: equal equities by symmetry
+            assertEquals(1.0 / 9, result.getEquity(i), 0.02, "player " + i);
+            sum += result.getEquity(i);
+        }
+        assertEquals(1.0, sum, 1e-9);
+        assertTrue(simulator.getAcceptanceRate() > 0.05, "acceptance " + simulator.getAcceptanceRate());
+    }
+
+    @Test
+    void testRejectsImpossibleRanges() {
+        HandRange aces = HandRange.parse("AA");
+        assertThrows(IllegalArgumentException.class,
+            () -> new RangeSimulator(List.of(aces, aces, aces), 0L, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> new RangeSimulator(List.of(HandRange.parse("AsKs"), aces), mask("As", "7c", "2d"), 0L));
+        assertThrows(IllegalArgumentException.class, () -> new RangeSimulator(List.of(aces), 0L, 0L));
+    }
+}
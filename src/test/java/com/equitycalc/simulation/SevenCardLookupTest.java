@@ -0,0 +1,86 @@
+package com.equitycalc.simulation;
+
+import com.equitycalc.model.Card;
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SevenCardLookupTest {
+
+    @Test
+    void testSuitRanksGathersOneSuit() {
+        long cards = mask("As", "Kh", "2s", "7s", "7d");
+        int spades = SevenCardLookup.suitRanks(cards, Card.Suit.SPADES.ordinal());
+        int expected = (1 << Card.Rank.ACE.ordinal()) | (1 << Card.Rank.TWO.ordinal())
+            | (1 << Card.Rank.SEVEN.ordinal());
+        assertEquals(expected, spades);
+        assertEquals(0, SevenCardLookup.suitRanks(cards, Card.Suit.CLUBS.ordinal()));
+    }
+
+    @Test
+    void testFlushAndStraightFlush() {
+        int flush = SevenCardLookup.evaluate(mask("Ah", "Jh", "9h", "6h", "2h", "Ks", "Kd"));
+        assertEquals(HandRanking.Type.FLUSH, BitHandEvaluator.category(flush));
+        int straightFlush = SevenCardLookup.evaluate(mask("9c", "8c", "7c", "6c", "5c", "9d", "9s"));
+        assertEquals(HandRanking.Type.STRAIGHT_FLUSH, BitHandEvaluator.category(straightFlush));
+    }
+
+    @Test
+    void testRankTableFitsAllMultisets() {
+        assertTrue(SevenCardLookup.rankTableSize() >= SevenCardLookup.RANK_MULTISETS);
+        assertTrue(SevenCardLookup.rankTableSize() <= 1 << 16);
+    }
+
+    @Test
+    void testAllSevenCardHandsMatchDirectEvaluator() {
+        // Known category frequencies over all 133,784,560 seven-card hands, HIGH_CARD first
+        long[] expectedCategories = {
+            23294460L, 58627800L, 31433400L, 6461620L, 6180020L,
+            4047644L, 3473184L, 224848L, 41584L
+        };
+        long[] strengthCounts = new long[BitHandEvaluator.MAX_STRENGTH + 1];
+        long mismatches = 0;
+
+        for (int c1 = 0; c1 < 52; c1++) {
+            long m1 = 1L << c1;
+            for (int c2 = c1 + 1; c2 < 52; c2++) {
+                long m2 = m1 | 1L << c2;
+                for (int c3 = c2 + 1; c3 < 52; c3++) {
+                    long m3 = m2 | 1L << c3;
+                    for (int c4 = c3 + 1; c4 < 52; c4++) {
+                        long m4 = m3 | 1L << c4;
+                        for (int c5 = c4 + 1; c5 < 52; c5++) {
+                            long m5 = m4 | 1L << c5;
+                            for (int c6 = c5 + 1; c6 < 52; c6++) {
+                                long m6 = m5 | 1L << c6;
+                                for (int c7 = c6 + 1; c7 < 52; c7++) {
+                                    long hand = m6 | 1L << c7;
+                                    int strength = SevenCardLookup.evaluate(hand);
+                                    if (strength != BitHandEvaluator.evaluate(hand)) {
+                                        mismatches++;
+                                    }
+                                    strengthCounts[strength]++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(0, mismatches);
+
+        long total = 0;
+        int distinct = 0;
+        long[] categories = new long[HandRanking.Type.values().length];
+        for (int strength = 1; strength < strengthCounts.length; strength++) {
+            if (strengthCounts[strength] > 0) {
+                distinct++;
+                total += strengthCounts[strength];
+                categories[BitHandEvaluator.category(strength).ordinal()] += strengthCounts[strength];
+            }
+        }
+        assertEquals(133784560L, total);
+        assertEquals(4824, distinct);
+        assertArrayEquals(expectedCategories, categories);
+    }
+}
@@ -0,0 +1,63 @@
+package com.equitycalc.simulation;
+
+import org.junit.jupiter.api.Test;
+import static com.equitycalc.model.TestCards.mask;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+public class StratifiedSamplerTest {
+
+    private void assertMatchesExact(long[] hands, long board, StratifiedSampler.Allocation allocation, long seed) {
+        SimulationResult exact = new ExactEnumerator().enumerate(hands, board, 0L);
+        StratifiedSampler.Estimate estimate = new StratifiedSampler(hands, board, 0L)
+            .run(50_000, allocation, new SplittableRandom(seed));
+
+        double totalEquity = 0;
+        for (int i = 0; i < hands.length; i++) {
+            double error = Math.abs(estimate.getEquity(i) - exact.getEquity(i));
+            assertTrue(error <= 5 * estimate.getEquityStandardError(i) + 1e-9,
+                "player " + i + " off by " + error);
+            totalEquity += estimate.getEquity(i);
+        }
+        assertEquals(1.0, totalEquity, 1e-9);
+        assertTrue(Math.abs(estimate.getTotalHands() - 50_000) < 1_000);
+    }
+
+    @Test
+    void testPreflopEstimatesMatchExactEquity() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc")};
+        assertMatchesExact(hands, 0L, StratifiedSampler.Allocation.PROPORTIONAL, 1);
+        assertMatchesExact(hands, 0L, StratifiedSampler.Allocation.NEYMAN, 2);
+    }
+
+    @Test
+    void testMultiwayFlopEstimatesMatchExactEquity() {
+        long[] hands = {mask("Ah", "Kh"), mask("Qs", "Qc"), mask("Jd", "Td")};
+        long board = mask("Qh", "9h", "2d");
+        assertMatchesExact(hands, board, StratifiedSampler.Allocation.PROPORTIONAL, 3);
+        assertMatchesExact(hands, board, StratifiedSampler.Allocation.NEYMAN, 4);
+    }
+
+    @Test
+    void testStratificationReducesVariance() {
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        StratifiedSampler sampler = new StratifiedSampler(hands, 0L, 0L);
+        assertTrue(sampler.getStrataCount() > 1);
+        StratifiedSampler.Estimate estimate = sampler.run(50_000,
+            StratifiedSampler.Allocation.NEYMAN, new SplittableRandom(5));
+        assertTrue(estimate.getVarianceReduction(0) > 1.2);
+    }
+
+    @Test
+    void testProbabilitiesSumToOne() {
+        long[] hands = {mask("Ac", "Ad"), mask("Kh", "Ks")};
+        StratifiedSampler.Estimate estimate = new StratifiedSampler(hands, 0L, 0L)
+            .run(10_000, StratifiedSampler.Allocation.PROPORTIONAL, new SplittableRandom(6));
+        for (int i = 0; i < 2; i++) {
+            double total = estimate.getWinProbability(i) + estimate.getSplitProbability(i)
+                + estimate.getLossProbability(i);
+            assertEquals(1.0, total, 1e-9);
+        }
+    }
+}